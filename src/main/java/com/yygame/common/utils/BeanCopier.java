@@ -0,0 +1,324 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 属性复制器，在两个类之间按照属性名复制非静态属性
+ * <p>
+ * 每一对 (源类, 目标类) 只在第一次使用时解析一次属性映射，之后的复制直接使用预先编译好的属性访问器，
+ * 类型不同的属性会使用 {@link ConvertUtil} 进行转换，无法转换的属性会被忽略
+ * <pre>
+ * BeanCopier&lt;UserDto, UserEntity&gt; copier = BeanCopier.create(UserDto.class, UserEntity.class);
+ * UserEntity entity = copier.copy(dto);
+ * List&lt;UserEntity&gt; entities = copier.copyList(dtoList);
+ * </pre>
+ *
+ * @param <S> 源类型
+ * @param <T> 目标类型
+ * @author yzy
+ */
+public final class BeanCopier<S, T> {
+
+    /**
+     * 直接赋值
+     */
+    private static final int CONVERT_NONE = 0;
+    private static final int CONVERT_STRING = 1;
+    private static final int CONVERT_INTEGER = 2;
+    private static final int CONVERT_LONG = 3;
+    private static final int CONVERT_FLOAT = 4;
+    private static final int CONVERT_DOUBLE = 5;
+    private static final int CONVERT_BOOLEAN = 6;
+    private static final int CONVERT_DATE = 7;
+
+    /**
+     * 源类 --> (目标类 --> 复制器)，复制器保存在目标类上
+     */
+    private static final ClassValue<ClassValue<BeanCopier<?, ?>>> COPIERS_BY_SOURCE = new ClassValue<ClassValue<BeanCopier<?, ?>>>() {
+        @Override
+        protected ClassValue<BeanCopier<?, ?>> computeValue(final Class<?> sourceClass) {
+            return new ClassValue<BeanCopier<?, ?>>() {
+                @Override
+                protected BeanCopier<?, ?> computeValue(Class<?> targetClass) {
+                    return new BeanCopier<>(sourceClass, targetClass);
+                }
+            };
+        }
+    };
+
+    /**
+     * 目标类 --> (源类 --> 复制器)，复制器保存在源类上
+     */
+    private static final ClassValue<ClassValue<BeanCopier<?, ?>>> COPIERS_BY_TARGET = new ClassValue<ClassValue<BeanCopier<?, ?>>>() {
+        @Override
+        protected ClassValue<BeanCopier<?, ?>> computeValue(final Class<?> targetClass) {
+            return new ClassValue<BeanCopier<?, ?>>() {
+                @Override
+                protected BeanCopier<?, ?> computeValue(Class<?> sourceClass) {
+                    return new BeanCopier<>(sourceClass, targetClass);
+                }
+            };
+        }
+    };
+
+    private final Class<S> sourceClass;
+
+    private final Class<T> targetClass;
+
+    private final PropertyAccessor<S, Object>[] sourceAccessors;
+
+    private final PropertyAccessor<T, Object>[] targetAccessors;
+
+    private final int[] converters;
+
+    @SuppressWarnings("unchecked")
+    private BeanCopier(Class<S> sourceClass, Class<T> targetClass) {
+        this.sourceClass = sourceClass;
+        this.targetClass = targetClass;
+
+        List<PropertyAccessor<S, Object>> sourceList = new ArrayList<>();
+        List<PropertyAccessor<T, Object>> targetList = new ArrayList<>();
+        List<Integer> converterList = new ArrayList<>();
+        Set<String> handledNames = new HashSet<>();
+
+        for (Field targetField : ReflectUtil.getAllNoneStaticDeclaredFields(targetClass)) {
+            // 子类的属性在前，同名的父类属性忽略
+            if (!handledNames.add(targetField.getName()) || Modifier.isFinal(targetField.getModifiers())) {
+                continue;
+            }
+            Field sourceField = ReflectUtil.findDeclaredField(sourceClass, targetField.getName());
+            if (null == sourceField || Modifier.isStatic(sourceField.getModifiers())) {
+                continue;
+            }
+            int converter = resolveConverter(sourceField.getType(), targetField.getType());
+            if (converter < 0) {
+                continue;
+            }
+            sourceList.add(PropertyAccessor.<S, Object>of(sourceField));
+            targetList.add(PropertyAccessor.<T, Object>of(targetField));
+            converterList.add(converter);
+        }
+
+        this.sourceAccessors = toArray(sourceList);
+        this.targetAccessors = toArray(targetList);
+        this.converters = new int[converterList.size()];
+        for (int i = 0; i < converters.length; ++i) {
+            converters[i] = converterList.get(i);
+        }
+    }
+
+    /**
+     * 无法直接创建泛型数组，列表中的元素类型都是 PropertyAccessor&lt;C, Object&gt;
+     */
+    @SuppressWarnings("unchecked")
+    private static <C> PropertyAccessor<C, Object>[] toArray(List<PropertyAccessor<C, Object>> accessors) {
+        return accessors.toArray((PropertyAccessor<C, Object>[]) new PropertyAccessor<?, ?>[accessors.size()]);
+    }
+
+    /**
+     * 获取两个类之间的属性复制器，结果会被缓存
+     *
+     * @param sourceClass 源类
+     * @param targetClass 目标类
+     * @param <S>         源类型
+     * @param <T>         目标类型
+     * @return 返回属性复制器
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> BeanCopier<S, T> create(Class<S> sourceClass, Class<T> targetClass) {
+        AssertUtil.assertNotNull(sourceClass, "源类不能为空");
+        AssertUtil.assertNotNull(targetClass, "目标类不能为空");
+        // 复制器同时引用两个类，需要保存在类加载器生命周期较短（子加载器）的类上，
+        // 否则例如插件中的源类复制到父加载器中的目标类时，目标类会一直持有插件的类加载器
+        if (isAncestor(targetClass.getClassLoader(), sourceClass.getClassLoader())) {
+            return (BeanCopier<S, T>) COPIERS_BY_TARGET.get(targetClass).get(sourceClass);
+        }
+        // 源类的加载器是目标类的加载器的祖先，或者两者相同；没有父子关系的两个加载器之间无法避免互相引用
+        return (BeanCopier<S, T>) COPIERS_BY_SOURCE.get(sourceClass).get(targetClass);
+    }
+
+    /**
+     * ancestor 是否是 loader 的祖先（不包括 loader 本身）， null 表示启动类加载器
+     */
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        if (null == loader || ancestor == loader) {
+            return false;
+        }
+        for (ClassLoader parent = loader.getParent(); ; parent = parent.getParent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+            if (null == parent) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 复制同名属性
+     *
+     * @param source 源对象
+     * @param target 目标对象
+     */
+    @SuppressWarnings("unchecked")
+    public static void copyProperties(Object source, Object target) {
+        if (null == source || null == target) {
+            return;
+        }
+        ((BeanCopier<Object, Object>) create(source.getClass(), target.getClass())).copy(source, target);
+    }
+
+    public Class<S> getSourceClass() {
+        return sourceClass;
+    }
+
+    public Class<T> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * 获取会被复制的属性名列表
+     */
+    public List<String> getPropertyNames() {
+        List<String> names = new ArrayList<>(targetAccessors.length);
+        for (PropertyAccessor<T, Object> accessor : targetAccessors) {
+            names.add(accessor.getName());
+        }
+        return names;
+    }
+
+    /**
+     * 将源对象的属性复制到目标对象
+     *
+     * @param source 源对象
+     * @param target 目标对象
+     */
+    public void copy(S source, T target) {
+        if (null == source || null == target) {
+            return;
+        }
+        for (int i = 0; i < targetAccessors.length; ++i) {
+            PropertyAccessor<T, Object> targetAccessor = targetAccessors[i];
+            try {
+                Object value = convert(sourceAccessors[i].get(source), converters[i]);
+                if (null == value && targetAccessor.getType().isPrimitive()) {
+                    continue;
+                }
+                targetAccessor.set(target, value);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("复制属性[" + targetAccessor.getName() + "]失败: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 使用目标类的默认构造函数创建实例，并复制属性
+     *
+     * @param source 源对象
+     * @return 返回目标对象，源对象为 null 则返回 null
+     */
+    public T copy(S source) {
+        if (null == source) {
+            return null;
+        }
+        T target = Instantiator.of(targetClass).newInstance();
+        copy(source, target);
+        return target;
+    }
+
+    /**
+     * 批量复制
+     *
+     * @param sources 源对象列表
+     * @return 返回目标对象列表，源对象为 null 的位置也为 null， 始终返回非 null
+     */
+    public List<T> copyList(List<? extends S> sources) {
+        if (null == sources || sources.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Instantiator<T> instantiator = Instantiator.of(targetClass);
+        List<T> targets = new ArrayList<>(sources.size());
+        for (S source : sources) {
+            if (null == source) {
+                targets.add(null);
+                continue;
+            }
+            T target = instantiator.newInstance();
+            copy(source, target);
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    /**
+     * 计算源类型到目标类型的转换方式
+     *
+     * @return 返回转换方式，不支持的返回 -1
+     */
+    static int resolveConverter(Class<?> sourceType, Class<?> targetType) {
+        Class<?> source = ClassUtils.primitiveToWrapper(sourceType);
+        Class<?> target = ClassUtils.primitiveToWrapper(targetType);
+        if (target.isAssignableFrom(source)) {
+            return CONVERT_NONE;
+        }
+        if (target == String.class) {
+            return CONVERT_STRING;
+        }
+        if (target == Integer.class) {
+            return CONVERT_INTEGER;
+        }
+        if (target == Long.class) {
+            return CONVERT_LONG;
+        }
+        if (target == Float.class) {
+            return CONVERT_FLOAT;
+        }
+        if (target == Double.class) {
+            return CONVERT_DOUBLE;
+        }
+        if (target == Boolean.class) {
+            return CONVERT_BOOLEAN;
+        }
+        if (target == Date.class) {
+            return CONVERT_DATE;
+        }
+        return -1;
+    }
+
+    /**
+     * 按照 {@link #resolveConverter(Class, Class)} 计算出的转换方式转换值
+     */
+    static Object convert(Object value, int converter) {
+        switch (converter) {
+            case CONVERT_STRING:
+                return ConvertUtil.toString(value);
+            case CONVERT_INTEGER:
+                return ConvertUtil.toInteger(value);
+            case CONVERT_LONG:
+                return ConvertUtil.toLong(value);
+            case CONVERT_FLOAT:
+                return ConvertUtil.toFloat(value);
+            case CONVERT_DOUBLE:
+                return ConvertUtil.toDouble(value);
+            case CONVERT_BOOLEAN:
+                return ConvertUtil.toBoolean(value);
+            case CONVERT_DATE:
+                return ConvertUtil.toDate(value);
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BeanCopier[" + sourceClass.getName() + " --> " + targetClass.getName() + "]";
+    }
+}
@@ -0,0 +1,340 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bean 与 Map 之间的映射器
+ * <p>
+ * 每个类只在第一次使用时解析一次 getter/setter， 生成属性表并缓存，之后的 toMap/fromMap 不再做任何反射查找，
+ * 属性名的规则为： getXxx/isXxx/setXxx 去掉前缀后首字母小写， isXxx 的返回类型可以是 boolean 或 Boolean；
+ * 存在多个重载的 setter 时优先使用参数类型与 getter 返回类型相同的 setter
+ *
+ * @param <T> Bean 类型
+ * @author yzy
+ */
+public final class BeanMapper<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 类 --> 映射器，使用 ClassValue 保存，不会阻止类加载器被回收
+     */
+    private static final ClassValue<BeanMapper<?>> MAPPERS = new ClassValue<BeanMapper<?>>() {
+        @Override
+        protected BeanMapper<?> computeValue(Class<?> type) {
+            return new BeanMapper<>(type);
+        }
+    };
+
+    /**
+     * 单个属性
+     */
+    private static final class Property {
+
+        private final String name;
+
+        /**
+         * 属性类型，以 setter 的参数类型为准，没有 setter 则为 getter 的返回类型
+         */
+        private Class<?> type;
+
+        /**
+         * (Object)Object， 不可读为 null
+         */
+        private MethodHandle getter;
+
+        /**
+         * (Object, Object)void， 不可写为 null
+         */
+        private MethodHandle setter;
+
+        private int converter = -1;
+
+        private Method getterMethod;
+
+        private final List<Method> setterMethods = new ArrayList<>(1);
+
+        private Property(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Class<T> type;
+
+    /**
+     * 属性名 --> 属性
+     */
+    private final Map<String, Property> propertyMap;
+
+    /**
+     * 可读的属性，按名称排序
+     */
+    private final Property[] readableProperties;
+
+    /**
+     * 同时拥有 getter 和 setter 的属性名
+     */
+    private final Set<String> propertyNames;
+
+    private BeanMapper(Class<T> type) {
+        this.type = type;
+
+        Map<String, Property> properties = new TreeMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String methodName = method.getName();
+            int paramCount = method.getParameterTypes().length;
+            Class<?> returnType = method.getReturnType();
+
+            if (paramCount == 1 && methodName.length() > 3 && methodName.startsWith("set")) {
+                getProperty(properties, methodName.substring(3)).setterMethods.add(method);
+                continue;
+            }
+
+            if (paramCount == 0 && returnType != void.class && methodName.length() > 3 && methodName.startsWith("get")) {
+                // getXxx 优先于 isXxx
+                getProperty(properties, methodName.substring(3)).getterMethod = method;
+            } else if (paramCount == 0 && (returnType == boolean.class || returnType == Boolean.class)
+                    && methodName.length() > 2 && methodName.startsWith("is")) {
+                Property property = getProperty(properties, methodName.substring(2));
+                if (null == property.getterMethod || property.getterMethod.getName().startsWith("is")) {
+                    property.getterMethod = method;
+                }
+            }
+        }
+
+        Map<String, Property> propertyMap = new HashMap<>(properties.size() * 2);
+        Map<String, Property> readableMap = new LinkedHashMap<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (Property property : properties.values()) {
+            resolveAccessors(property);
+            property.converter = BeanCopier.resolveConverter(Object.class, property.type);
+            propertyMap.put(property.name, property);
+            if (property.getter != null) {
+                readableMap.put(property.name, property);
+            }
+            if (property.getter != null && property.setter != null) {
+                names.add(property.name);
+            }
+        }
+
+        this.propertyMap = propertyMap;
+        this.readableProperties = readableMap.values().toArray(new Property[readableMap.size()]);
+        this.propertyNames = Collections.unmodifiableSet(names);
+    }
+
+    private static Property getProperty(Map<String, Property> properties, String suffix) {
+        String name = CommonUtil.firstLetterToLowerCase(suffix);
+        Property property = properties.get(name);
+        if (null == property) {
+            property = new Property(name);
+            properties.put(name, property);
+        }
+        return property;
+    }
+
+    /**
+     * 确定 getter 和 setter： 重载的 setter 中优先选择参数类型与 getter 返回类型相同的，
+     * 否则按参数类型名选择第一个，保证结果与 getMethods 的顺序无关
+     */
+    private static void resolveAccessors(Property property) {
+        Method getter = property.getterMethod;
+        Method setter = null;
+        for (Method method : property.setterMethods) {
+            Class<?> paramType = method.getParameterTypes()[0];
+            if (null != getter && paramType == getter.getReturnType()) {
+                setter = method;
+                break;
+            }
+            if (null == setter || paramType.getName().compareTo(setter.getParameterTypes()[0].getName()) < 0) {
+                setter = method;
+            }
+        }
+        if (null != getter) {
+            property.getter = unreflect(getter, GETTER_TYPE);
+            property.type = getter.getReturnType();
+        }
+        if (null != setter) {
+            property.setter = unreflect(setter, SETTER_TYPE);
+            property.type = setter.getParameterTypes()[0];
+        }
+        property.getterMethod = null;
+        property.setterMethods.clear();
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType methodType) {
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
+        }
+        try {
+            return LOOKUP.unreflect(method).asType(methodType);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("无法访问方法[" + method + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取指定类的映射器，结果会被缓存
+     *
+     * @param type Bean 类
+     * @param <T>  Bean 类型
+     * @return 返回映射器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanMapper<T> of(Class<T> type) {
+        AssertUtil.assertNotNull(type, "要映射的类不能为空");
+        return (BeanMapper<T>) MAPPERS.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 获取同时拥有 getter 和 setter 的属性名
+     *
+     * @return 返回不可修改的属性名集合
+     */
+    public Set<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * 是否是 Bean 的属性（同时拥有 getter 和 setter）
+     *
+     * @param name 属性名
+     * @return 返回是否是属性
+     */
+    public boolean isProperty(String name) {
+        return propertyNames.contains(name);
+    }
+
+    /**
+     * 删除 Map 中不是 Bean 属性的 key
+     *
+     * @param configMap Map配置项，会被直接修改
+     * @return 返回 configMap
+     */
+    public <V> Map<String, V> filterUnRecordedField(Map<String, V> configMap) {
+        if (configMap == null || configMap.isEmpty()) {
+            return configMap;
+        }
+        Iterator<String> iterator = configMap.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!propertyNames.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        return configMap;
+    }
+
+    /**
+     * 将 Bean 的所有可读属性转换成 Map
+     *
+     * @param bean Bean 对象
+     * @return 返回属性名 --> 属性值，按属性名排序， bean 为 null 则返回空 Map
+     */
+    public Map<String, Object> toMap(T bean) {
+        Map<String, Object> map = new LinkedHashMap<>(readableProperties.length * 2);
+        if (null == bean) {
+            return map;
+        }
+        for (Property property : readableProperties) {
+            try {
+                map.put(property.name, property.getter.invokeExact((Object) bean));
+            } catch (Throwable e) {
+                throw new RuntimeException("读取属性[" + type.getName() + "." + property.name + "]失败: " + e.getMessage(), e);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 使用默认构造函数创建 Bean， 并使用 Map 中的值设置属性， 值的类型不一致时使用 {@link ConvertUtil} 进行转换
+     *
+     * @param map 属性名 --> 属性值
+     * @return 返回 Bean 对象
+     */
+    public T fromMap(Map<String, ?> map) {
+        T bean = Instantiator.of(type).newInstance();
+        populate(bean, map);
+        return bean;
+    }
+
+    /**
+     * 使用 Map 中的值设置 Bean 的属性，不可写的属性会被忽略
+     *
+     * @param bean Bean 对象
+     * @param map  属性名 --> 属性值
+     * @return 返回 bean
+     */
+    public T populate(T bean, Map<String, ?> map) {
+        if (null == bean || null == map || map.isEmpty()) {
+            return bean;
+        }
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            Property property = propertyMap.get(entry.getKey());
+            if (null == property || null == property.setter) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (null != value && !ClassUtils.primitiveToWrapper(property.type).isInstance(value) && property.converter >= 0) {
+                value = BeanCopier.convert(value, property.converter);
+            }
+            if (null == value && property.type.isPrimitive()) {
+                continue;
+            }
+            try {
+                property.setter.invokeExact((Object) bean, value);
+            } catch (Throwable e) {
+                throw new RuntimeException("设置属性[" + type.getName() + "." + property.name + "]失败: " + e.getMessage(), e);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 获取指定类的映射器并将 Bean 转换成 Map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> beanToMap(Object bean) {
+        if (null == bean) {
+            return new LinkedHashMap<>();
+        }
+        return ((BeanMapper<Object>) of(bean.getClass())).toMap(bean);
+    }
+
+    /**
+     * 获取指定类的映射器并将 Map 转换成 Bean
+     */
+    public static <T> T mapToBean(Map<String, ?> map, Class<T> type) {
+        return of(type).fromMap(map);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanMapper[" + type.getName() + "]";
+    }
+}
@@ -0,0 +1,199 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 签名使用的规范化查询字符串：参数按参数名排序，按照 "参数=参数值" 的格式用 "&amp;" 拼接，参数值为空时只有参数名，
+ * 格式与 {@link UrlUtil#toUrlParamsString(Map, boolean, boolean)} 排序时一致
+ * <p>
+ * 与 toUrlParamsString 不同，编码时参数值被当作原始值只编码一次，不会先解码；
+ * 自然排序的 SortedMap 以及已经排好序的参数不会再排序，字符串的容量会预先估算；
+ * 计算签名时可以使用 {@link #update(MessageDigest, Map, boolean)} 直接将 UTF-8 字节写入摘要，不生成完整的字符串
+ * <pre>
+ * MessageDigest digest = MessageDigest.getInstance("MD5");
+ * CanonicalQueryBuilder.update(digest, params, false);
+ * digest.update(secret.getBytes(StandardCharsets.UTF_8));
+ * byte[] sign = digest.digest();
+ * </pre>
+ *
+ * @author yzy
+ */
+public final class CanonicalQueryBuilder {
+
+    /**
+     * 写入摘要时的缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    private static final Comparator<Map.Entry<String, String>> KEY_ORDER = new Comparator<Map.Entry<String, String>>() {
+        @Override
+        public int compare(Map.Entry<String, String> o1, Map.Entry<String, String> o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    private CanonicalQueryBuilder() {
+    }
+
+    /**
+     * 生成规范化查询字符串
+     *
+     * @param params 参数，参数名不能为 null
+     * @param encode 是否编码参数值
+     * @return 不包含 "?"，没有参数时返回空字符串
+     */
+    public static String build(Map<String, String> params, boolean encode) {
+        if (null == params || params.isEmpty()) {
+            return "";
+        }
+        return buildSorted(sortedEntries(params), encode);
+    }
+
+    /**
+     * 使用已经按参数名排好序的参数生成查询字符串
+     *
+     * @param sortedEntries 排好序的参数
+     * @param encode        是否编码参数值
+     * @return 不包含 "?"，没有参数时返回空字符串
+     */
+    public static String buildSorted(Iterable<? extends Map.Entry<String, String>> sortedEntries, boolean encode) {
+        int capacity = 0;
+        for (Map.Entry<String, String> entry : sortedEntries) {
+            String value = entry.getValue();
+            capacity += entry.getKey().length() + 2 + (null == value ? 0 : value.length());
+        }
+        if (capacity == 0) {
+            return "";
+        }
+        // 编码后的长度未知，多预留一些
+        StringBuilder builder = new StringBuilder(encode ? capacity + (capacity >> 2) : capacity);
+        return appendSorted(builder, sortedEntries, encode).toString();
+    }
+
+    /**
+     * 将排好序的参数追加到 builder
+     *
+     * @param builder       输出
+     * @param sortedEntries 排好序的参数
+     * @param encode        是否编码参数值
+     * @return 返回 builder
+     */
+    public static StringBuilder appendSorted(StringBuilder builder, Iterable<? extends Map.Entry<String, String>> sortedEntries, boolean encode) {
+        boolean first = true;
+        for (Map.Entry<String, String> entry : sortedEntries) {
+            if (!first) {
+                builder.append('&');
+            }
+            first = false;
+            appendEntry(builder, entry, encode);
+        }
+        return builder;
+    }
+
+    /**
+     * 将规范化查询字符串的 UTF-8 字节写入摘要
+     *
+     * @param digest 摘要
+     * @param params 参数，参数名不能为 null
+     * @param encode 是否编码参数值
+     */
+    public static void update(MessageDigest digest, Map<String, String> params, boolean encode) {
+        if (null == params || params.isEmpty()) {
+            return;
+        }
+        updateSorted(digest, sortedEntries(params), encode);
+    }
+
+    /**
+     * 将排好序的参数的 UTF-8 字节写入摘要，只使用固定大小的缓冲区
+     *
+     * @param digest        摘要
+     * @param sortedEntries 排好序的参数
+     * @param encode        是否编码参数值
+     */
+    public static void updateSorted(MessageDigest digest, Iterable<? extends Map.Entry<String, String>> sortedEntries, boolean encode) {
+        StringBuilder builder = new StringBuilder(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean first = true;
+        for (Map.Entry<String, String> entry : sortedEntries) {
+            if (!first) {
+                builder.append('&');
+            }
+            first = false;
+            appendEntry(builder, entry, encode);
+            if (builder.length() >= BUFFER_SIZE) {
+                update(digest, builder, buffer);
+                builder.setLength(0);
+            }
+        }
+        update(digest, builder, buffer);
+    }
+
+    private static void appendEntry(StringBuilder builder, Map.Entry<String, String> entry, boolean encode) {
+        String value = entry.getValue();
+        builder.append(entry.getKey());
+        if (StringUtils.isBlank(value)) {
+            return;
+        }
+        builder.append('=');
+        if (encode) {
+            UrlUtil.appendEncoded(builder, value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    /**
+     * 自然排序的 SortedMap 直接使用，否则复制到列表中排序
+     */
+    private static Iterable<Map.Entry<String, String>> sortedEntries(Map<String, String> params) {
+        if (params instanceof SortedMap && null == ((SortedMap<String, String>) params).comparator()) {
+            return params.entrySet();
+        }
+        List<Map.Entry<String, String>> entries = new ArrayList<>(params.entrySet());
+        Collections.sort(entries, KEY_ORDER);
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 按 UTF-8 编码写入摘要，结果与 String.getBytes(UTF_8) 一致
+     */
+    private static void update(MessageDigest digest, CharSequence chars, byte[] buffer) {
+        int count = 0;
+        int length = chars.length();
+        for (int i = 0; i < length; ++i) {
+            if (count + 4 > buffer.length) {
+                digest.update(buffer, 0, count);
+                count = 0;
+            }
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        digest.update(buffer, 0, count);
+    }
+}
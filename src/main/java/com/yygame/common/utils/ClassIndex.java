@@ -0,0 +1,192 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 编译期生成的类索引，由 {@link ClassIndexProcessor} 生成
+ * <p>
+ * 类路径中所有的 {@link #INDEX_LOCATION} 文件会被合并， 每个类加载器只加载一次；
+ * 索引只覆盖包含索引文件的类路径根，其他类路径根（例如编译时没有使用处理器的 jar 包）仍然需要扫描，
+ * 设置系统属性 {@link #IGNORE_PROPERTY}=true 可以禁用索引，强制扫描类路径
+ *
+ * @author yzy
+ */
+public final class ClassIndex {
+
+    /**
+     * 索引文件位置
+     */
+    public static final String INDEX_LOCATION = "META-INF/common-utils.index";
+
+    /**
+     * 是否忽略索引的系统属性
+     */
+    public static final String IGNORE_PROPERTY = "common.utils.index.ignore";
+
+    /**
+     * 没有索引文件时使用的占位对象
+     */
+    private static final ClassIndex EMPTY = new ClassIndex(Collections.<String, Set<String>>emptyMap(), Collections.<String>emptySet());
+
+    private static final Map<ClassLoader, ClassIndex> CACHE = new WeakHashMap<>();
+
+    /**
+     * 索引类型 --> 类名集合
+     */
+    private final Map<String, Set<String>> stereotypeMap;
+
+    /**
+     * 包含索引文件的类路径根
+     */
+    private final Set<String> roots;
+
+    private ClassIndex(Map<String, Set<String>> stereotypeMap, Set<String> roots) {
+        this.stereotypeMap = stereotypeMap;
+        this.roots = roots;
+    }
+
+    /**
+     * 加载指定类加载器下的类索引
+     *
+     * @param classLoader 类加载器，为 null 则使用当前线程的类加载器
+     * @return 如果类路径中没有索引文件或者索引被禁用则返回 null
+     */
+    public static ClassIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_PROPERTY)) {
+            return null;
+        }
+        classLoader = null == classLoader ? Thread.currentThread().getContextClassLoader() : classLoader;
+
+        ClassIndex index;
+        synchronized (CACHE) {
+            index = CACHE.get(classLoader);
+        }
+        if (null == index) {
+            index = doLoad(classLoader);
+            synchronized (CACHE) {
+                CACHE.put(classLoader, index);
+            }
+        }
+        return index == EMPTY ? null : index;
+    }
+
+    private static ClassIndex doLoad(ClassLoader classLoader) {
+        Map<String, Set<String>> stereotypeMap = new HashMap<>();
+        Set<String> roots = new HashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return EMPTY;
+            }
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                readIndex(url, stereotypeMap);
+                roots.add(getRoot(url, INDEX_LOCATION));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("加载类索引[" + INDEX_LOCATION + "]失败: " + e.getMessage(), e);
+        }
+        return new ClassIndex(stereotypeMap, Collections.unmodifiableSet(roots));
+    }
+
+    /**
+     * 获取资源所在的类路径根，例如 file:/app/classes/ 或者 jar:file:/app/lib/a.jar!/
+     *
+     * @param url          资源地址
+     * @param resourcePath 资源相对于类路径根的路径
+     * @return 资源地址与路径不对应时返回资源地址本身
+     */
+    static String getRoot(URL url, String resourcePath) {
+        String path = StringUtils.removeEnd(url.toExternalForm(), "/");
+        if (resourcePath.isEmpty() || !path.endsWith(resourcePath)) {
+            return path;
+        }
+        return path.substring(0, path.length() - resourcePath.length());
+    }
+
+    private static void readIndex(URL url, Map<String, Set<String>> stereotypeMap) throws IOException {
+        try (InputStream inputStream = url.openStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = line.indexOf('=');
+                if (index < 1 || line.startsWith("#")) {
+                    continue;
+                }
+                String className = line.substring(0, index).trim();
+                for (String stereotype : StringUtils.split(line.substring(index + 1), ',')) {
+                    stereotype = stereotype.trim();
+                    Set<String> classNames = stereotypeMap.get(stereotype);
+                    if (null == classNames) {
+                        classNames = new LinkedHashSet<>();
+                        stereotypeMap.put(stereotype, classNames);
+                    }
+                    classNames.add(className);
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断给定的类型是否会被编译期索引记录： 类型本身或其元注解上标记了 {@link Indexed}
+     *
+     * @param type 注解、父类或者接口
+     * @return 返回是否被索引
+     */
+    public static boolean isIndexed(Class<?> type) {
+        return null != type && isIndexed(type, new HashSet<Class<?>>());
+    }
+
+    private static boolean isIndexed(Class<?> type, Set<Class<?>> visited) {
+        if (!visited.add(type)) {
+            return false;
+        }
+        if (type.isAnnotationPresent(Indexed.class)) {
+            return true;
+        }
+        if (!type.isAnnotation()) {
+            return false;
+        }
+        for (Annotation metaAnnotation : type.getAnnotations()) {
+            Class<? extends Annotation> metaType = metaAnnotation.annotationType();
+            if (!metaType.getName().startsWith("java.lang.annotation.") && isIndexed(metaType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 包含索引文件的类路径根，这些类路径根中被索引的类不需要再扫描
+     */
+    public Set<String> getRoots() {
+        return roots;
+    }
+
+    /**
+     * 获取指定索引类型的所有类名
+     *
+     * @param stereotype 索引类型，注解或父类的类名
+     * @return 始终返回非 null 集合
+     */
+    public Set<String> getCandidates(String stereotype) {
+        Set<String> classNames = stereotypeMap.get(stereotype);
+        return null == classNames ? Collections.<String>emptySet() : Collections.unmodifiableSet(classNames);
+    }
+}
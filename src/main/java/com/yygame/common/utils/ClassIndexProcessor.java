@@ -0,0 +1,232 @@
+package com.yygame.common.utils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 编译期类索引生成器
+ * <p>
+ * 记录所有使用了 {@link Indexed} 注解（直接或作为元注解）的类，以及 {@link Indexed} 类型的所有子类，
+ * 编译结束时写入 {@link ClassIndex#INDEX_LOCATION}， 格式为：
+ * <pre>
+ * 类名=索引类型1,索引类型2
+ * </pre>
+ * 增量编译时只有部分类参与编译，已有索引文件中没有重新编译、并且仍然存在的类会被保留；
+ * 只要本 jar 在编译的 classpath 中，javac 会通过 META-INF/services 自动加载该处理器
+ *
+ * @author yzy
+ */
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 类名 --> 索引类型
+     */
+    private final Map<String, Set<String>> index = new TreeMap<>();
+
+    /**
+     * 本次编译处理过的类名，这些类在已有索引中的记录会被本次的结果替换
+     */
+    private final Set<String> processed = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            processElement(element);
+        }
+        return false;
+    }
+
+    private void processElement(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement typeElement = (TypeElement) element;
+        if (typeElement.getKind() == ElementKind.CLASS || typeElement.getKind() == ElementKind.INTERFACE) {
+            processed.add(getBinaryName(typeElement));
+            Set<String> stereotypes = new TreeSet<>();
+            collectAnnotationStereotypes(typeElement, stereotypes);
+            collectTypeStereotypes(typeElement.asType(), stereotypes, new HashSet<String>());
+            if (!stereotypes.isEmpty()) {
+                index.put(processingEnv.getElementUtils().getBinaryName(typeElement).toString(), stereotypes);
+            }
+        }
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            processElement(enclosedElement);
+        }
+    }
+
+    /**
+     * 收集类上使用的被 {@link Indexed} 标记的注解（包含元注解），以及从父类继承的 @Inherited 注解，
+     * 与扫描时 {@link ClassMetadata#hasAnnotation(String, boolean)} 的结果一致
+     */
+    private void collectAnnotationStereotypes(TypeElement typeElement, Set<String> stereotypes) {
+        for (AnnotationMirror annotationMirror : processingEnv.getElementUtils().getAllAnnotationMirrors(typeElement)) {
+            TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (isIndexedAnnotation(annotationElement, new HashSet<String>())) {
+                stereotypes.add(getBinaryName(annotationElement));
+            }
+        }
+    }
+
+    private boolean isIndexedAnnotation(TypeElement annotationElement, Set<String> visited) {
+        if (!visited.add(annotationElement.getQualifiedName().toString())) {
+            return false;
+        }
+        if (null != annotationElement.getAnnotation(Indexed.class)) {
+            return true;
+        }
+        for (AnnotationMirror metaAnnotation : annotationElement.getAnnotationMirrors()) {
+            TypeElement metaElement = (TypeElement) metaAnnotation.getAnnotationType().asElement();
+            if (metaElement.getQualifiedName().toString().startsWith("java.lang.annotation.")) {
+                continue;
+            }
+            if (isIndexedAnnotation(metaElement, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集所有被 {@link Indexed} 标记的父类以及接口
+     */
+    private void collectTypeStereotypes(TypeMirror type, Set<String> stereotypes, Set<String> visited) {
+        for (TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement superElement = (TypeElement) ((DeclaredType) superType).asElement();
+            String superName = getBinaryName(superElement);
+            if (!visited.add(superName)) {
+                continue;
+            }
+            if (null != superElement.getAnnotation(Indexed.class)) {
+                stereotypes.add(superName);
+            }
+            collectTypeStereotypes(superType, stereotypes, visited);
+        }
+    }
+
+    private String getBinaryName(TypeElement typeElement) {
+        return processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    }
+
+    /**
+     * 读取已有的索引文件，保留没有重新编译并且仍然存在的类
+     *
+     * @return 返回是否存在已有的索引文件
+     */
+    private boolean mergeExistingIndex() {
+        List<String> lines;
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.INDEX_LOCATION);
+            try (InputStream inputStream = file.openInputStream();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                lines = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有已有的索引文件
+            return false;
+        }
+        for (String line : lines) {
+            int separator = line.indexOf('=');
+            if (separator < 1 || line.startsWith("#")) {
+                continue;
+            }
+            String className = line.substring(0, separator).trim();
+            if (processed.contains(className) || index.containsKey(className) || !typeExists(className)) {
+                continue;
+            }
+            Set<String> stereotypes = new TreeSet<>();
+            for (String stereotype : line.substring(separator + 1).split(",")) {
+                if (!stereotype.trim().isEmpty()) {
+                    stereotypes.add(stereotype.trim());
+                }
+            }
+            if (!stereotypes.isEmpty()) {
+                index.put(className, stereotypes);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 类是否仍然存在于编译的 classpath 中（已删除的类不再保留）
+     */
+    private boolean typeExists(String binaryName) {
+        return null != processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+    }
+
+    private void writeIndex() {
+        boolean existing = mergeExistingIndex();
+        if (index.isEmpty() && !existing) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.INDEX_LOCATION);
+            try (OutputStream outputStream = file.openOutputStream();
+                 Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('=');
+                    boolean first = true;
+                    for (String stereotype : entry.getValue()) {
+                        if (!first) {
+                            writer.write(',');
+                        }
+                        writer.write(stereotype);
+                        first = false;
+                    }
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "写入类索引[" + ClassIndex.INDEX_LOCATION + "]失败: " + e.getMessage());
+        }
+    }
+}
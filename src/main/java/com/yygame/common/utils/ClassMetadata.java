@@ -0,0 +1,179 @@
+package com.yygame.common.utils;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 从 class 文件中读取的类元数据，由 {@link ClassMetadataReader} 创建，获取元数据不会加载类
+ *
+ * @author yzy
+ */
+public final class ClassMetadata {
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final ClassMetadataReader reader;
+
+    private final String className;
+
+    private final int access;
+
+    private final String superClassName;
+
+    private final String[] interfaceNames;
+
+    private final String[] annotationNames;
+
+    ClassMetadata(ClassMetadataReader reader, String className, int access, String superClassName,
+                  String[] interfaceNames, String[] annotationNames) {
+        this.reader = reader;
+        this.className = className;
+        this.access = access;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.annotationNames = annotationNames;
+    }
+
+    /**
+     * 复制一个使用指定读取器查找父类型的元数据
+     */
+    ClassMetadata bind(ClassMetadataReader reader) {
+        return new ClassMetadata(reader, className, access, superClassName, interfaceNames, annotationNames);
+    }
+
+    /**
+     * @return 类名，内部类使用 $ 分隔，与 Class.getName() 一致
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return 父类名，java.lang.Object 和 module-info 返回 null
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public String[] getInterfaceNames() {
+        return interfaceNames.clone();
+    }
+
+    /**
+     * @return 直接标记在类上的注解类名，包括 CLASS 级别保留的注解
+     */
+    public String[] getAnnotationNames() {
+        return annotationNames.clone();
+    }
+
+    public int getModifiers() {
+        return access;
+    }
+
+    public boolean isInterface() {
+        return (access & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(access);
+    }
+
+    /**
+     * @return 是否是可以实例化的具体类
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+
+    /**
+     * 类上是否直接标记了给定的注解
+     *
+     * @param annotationName 注解类名
+     * @return 返回是否标记
+     */
+    public boolean hasAnnotation(String annotationName) {
+        for (String name : annotationNames) {
+            if (name.equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类上是否标记了给定的注解
+     *
+     * @param annotationName     注解类名
+     * @param searchSuperclasses 是否查找父类，用于 @Inherited 注解
+     * @return 父类的 class 文件找不到时返回 true， 交由加载后的类做最终判断
+     */
+    public boolean hasAnnotation(String annotationName, boolean searchSuperclasses) {
+        ClassMetadata metadata = this;
+        while (true) {
+            if (metadata.hasAnnotation(annotationName)) {
+                return true;
+            }
+            if (!searchSuperclasses || null == metadata.superClassName || isJdkType(metadata.superClassName)) {
+                return false;
+            }
+            metadata = reader.getMetadata(metadata.superClassName);
+            if (null == metadata) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 判断当前类是否是给定类型本身或者其子类、实现类，与 Class.isAssignableFrom 一致
+     *
+     * @param typeName 父类或者接口类名
+     * @return 继承链上的 class 文件找不到时返回 true， 交由加载后的类做最终判断
+     */
+    public boolean isAssignableTo(String typeName) {
+        if (className.equals(typeName) || Object.class.getName().equals(typeName)) {
+            return true;
+        }
+        return isAssignableTo(this, typeName, !isJdkType(typeName), new HashSet<String>());
+    }
+
+    private boolean isAssignableTo(ClassMetadata metadata, String typeName, boolean skipJdkTypes, Set<String> visited) {
+        String[] superNames = metadata.superClassName == null ? metadata.interfaceNames : append(metadata.interfaceNames, metadata.superClassName);
+        for (String superName : superNames) {
+            if (superName.equals(typeName)) {
+                return true;
+            }
+            // JDK 中的类不可能继承应用中的类型
+            if ((skipJdkTypes && isJdkType(superName)) || !visited.add(superName)) {
+                continue;
+            }
+            ClassMetadata superMetadata = reader.getMetadata(superName);
+            if (null == superMetadata || isAssignableTo(superMetadata, typeName, skipJdkTypes, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] append(String[] array, String element) {
+        String[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = element;
+        return result;
+    }
+
+    private static boolean isJdkType(String className) {
+        return className.startsWith("java.") || className.startsWith("javax.");
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadata{" + className + "}";
+    }
+}
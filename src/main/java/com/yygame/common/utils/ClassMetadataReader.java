@@ -0,0 +1,321 @@
+package com.yygame.common.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 类文件元数据读取器，直接解析 class 文件的常量池和属性，不会加载类（也就不会执行静态初始化块）
+ * <p>
+ * 只解析类名、访问标记、父类、接口以及类上的注解， 字段和方法会被跳过；
+ * 读取过的元数据会被缓存，{@link ClassMetadata} 判断继承关系时会通过该读取器查找父类型的元数据
+ *
+ * @author yzy
+ */
+public class ClassMetadataReader {
+
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private static final String RUNTIME_INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+
+    /**
+     * 找不到类文件时使用的占位对象
+     */
+    private static final ClassMetadata NOT_FOUND = new ClassMetadata(null, "", 0, null, new String[0], new String[0]);
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 类名 --> 元数据
+     */
+    private final ConcurrentMap<String, ClassMetadata> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param classLoader 用于查找类文件的类加载器，为 null 则使用当前线程的类加载器
+     */
+    public ClassMetadataReader(ClassLoader classLoader) {
+        this.classLoader = null == classLoader ? Thread.currentThread().getContextClassLoader() : classLoader;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * 根据类名获取元数据，通过类加载器查找 class 文件
+     *
+     * @param className 类名
+     * @return 找不到 class 文件则返回 null
+     */
+    public ClassMetadata getMetadata(String className) {
+        ClassMetadata metadata = cache.get(className);
+        if (null == metadata) {
+            metadata = NOT_FOUND;
+            try (InputStream inputStream = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+                if (null != inputStream) {
+                    metadata = parse(readAll(inputStream));
+                }
+            } catch (IOException | RuntimeException e) {
+                metadata = NOT_FOUND;
+            }
+            ClassMetadata existsMetadata = cache.putIfAbsent(className, metadata);
+            if (null != existsMetadata) {
+                metadata = existsMetadata;
+            }
+        }
+        return metadata == NOT_FOUND ? null : metadata;
+    }
+
+    /**
+     * 读取类文件的元数据，结果会被缓存
+     *
+     * @param inputStream class 文件输入流，不会被关闭
+     * @return 返回元数据
+     * @throws IOException 读取失败或者不是合法的 class 文件
+     */
+    public ClassMetadata read(InputStream inputStream) throws IOException {
+        return read(readAll(inputStream));
+    }
+
+    /**
+     * 读取类文件的元数据，结果会被缓存
+     *
+     * @param bytes class 文件内容
+     * @return 返回元数据
+     * @throws IOException 不是合法的 class 文件
+     */
+    public ClassMetadata read(byte[] bytes) throws IOException {
+        ClassMetadata metadata;
+        try {
+            metadata = parse(bytes);
+        } catch (RuntimeException e) {
+            throw new IOException("解析 class 文件失败: " + e.getMessage(), e);
+        }
+        ClassMetadata existsMetadata = cache.putIfAbsent(metadata.getClassName(), metadata);
+        return null == existsMetadata || existsMetadata == NOT_FOUND ? metadata : existsMetadata;
+    }
+
+    /**
+     * 重新读取类文件的元数据，替换已缓存的结果，用于类文件发生变化的情况
+     */
+    ClassMetadata reload(InputStream inputStream) throws IOException {
+        ClassMetadata metadata;
+        try {
+            metadata = parse(readAll(inputStream));
+        } catch (RuntimeException e) {
+            throw new IOException("解析 class 文件失败: " + e.getMessage(), e);
+        }
+        cache.put(metadata.getClassName(), metadata);
+        return metadata;
+    }
+
+    /**
+     * 移除缓存的元数据，下次查找时重新读取
+     */
+    void evict(String className) {
+        cache.remove(className);
+    }
+
+    /**
+     * 注册其他来源（例如 {@link ClassScanCache}）的元数据，返回绑定到当前读取器的元数据
+     */
+    ClassMetadata register(ClassMetadata metadata) {
+        ClassMetadata boundMetadata = metadata.bind(this);
+        ClassMetadata existsMetadata = cache.putIfAbsent(boundMetadata.getClassName(), boundMetadata);
+        return null == existsMetadata || existsMetadata == NOT_FOUND ? boundMetadata : existsMetadata;
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(inputStream.available(), 1024));
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private ClassMetadata parse(byte[] bytes) throws IOException {
+        if (bytes.length < 10 || readInt(bytes, 0) != CLASS_MAGIC) {
+            throw new IOException("不是合法的 class 文件");
+        }
+
+        // 常量池，记录每个常量的起始位置（指向 tag 之后）
+        int constantCount = readUnsignedShort(bytes, 8);
+        int[] offsets = new int[constantCount];
+        int index = 10;
+        for (int i = 1; i < constantCount; ++i) {
+            int tag = bytes[index] & 0xFF;
+            offsets[i] = index + 1;
+            switch (tag) {
+                case 1:
+                    // Utf8
+                    index += 3 + readUnsignedShort(bytes, index + 1);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    index += 5;
+                    break;
+                case 5:
+                case 6:
+                    // Long/Double 占用两个位置
+                    index += 9;
+                    ++i;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    index += 3;
+                    break;
+                case 15:
+                    index += 4;
+                    break;
+                default:
+                    throw new IOException("未知的常量类型: " + tag);
+            }
+        }
+
+        int access = readUnsignedShort(bytes, index);
+        String className = readClassName(bytes, offsets, readUnsignedShort(bytes, index + 2));
+        int superIndex = readUnsignedShort(bytes, index + 4);
+        String superClassName = superIndex == 0 ? null : readClassName(bytes, offsets, superIndex);
+        int interfaceCount = readUnsignedShort(bytes, index + 6);
+        index += 8;
+        String[] interfaceNames = new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; ++i) {
+            interfaceNames[i] = readClassName(bytes, offsets, readUnsignedShort(bytes, index));
+            index += 2;
+        }
+
+        // 跳过字段和方法
+        for (int member = 0; member < 2; ++member) {
+            int memberCount = readUnsignedShort(bytes, index);
+            index += 2;
+            for (int i = 0; i < memberCount; ++i) {
+                int attributeCount = readUnsignedShort(bytes, index + 6);
+                index += 8;
+                for (int j = 0; j < attributeCount; ++j) {
+                    index += 6 + readInt(bytes, index + 2);
+                }
+            }
+        }
+
+        List<String> annotationNames = new ArrayList<>();
+        int attributeCount = readUnsignedShort(bytes, index);
+        index += 2;
+        for (int i = 0; i < attributeCount; ++i) {
+            String attributeName = readUtf8(bytes, offsets[readUnsignedShort(bytes, index)]);
+            int length = readInt(bytes, index + 2);
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName) || RUNTIME_INVISIBLE_ANNOTATIONS.equals(attributeName)) {
+                int annotationCount = readUnsignedShort(bytes, index + 6);
+                int annotationIndex = index + 8;
+                for (int j = 0; j < annotationCount; ++j) {
+                    String descriptor = readUtf8(bytes, offsets[readUnsignedShort(bytes, annotationIndex)]);
+                    // Lcom/yygame/Xxx; --> com.yygame.Xxx
+                    annotationNames.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+                    annotationIndex = skipAnnotation(bytes, annotationIndex);
+                }
+            }
+            index += 6 + length;
+        }
+
+        return new ClassMetadata(this, className, access, superClassName, interfaceNames,
+                annotationNames.toArray(new String[annotationNames.size()]));
+    }
+
+    /**
+     * 跳过一个注解，返回注解结束的位置
+     */
+    private static int skipAnnotation(byte[] bytes, int index) {
+        int pairCount = readUnsignedShort(bytes, index + 2);
+        index += 4;
+        for (int i = 0; i < pairCount; ++i) {
+            index = skipElementValue(bytes, index + 2);
+        }
+        return index;
+    }
+
+    private static int skipElementValue(byte[] bytes, int index) {
+        char tag = (char) (bytes[index] & 0xFF);
+        switch (tag) {
+            case 'e':
+                return index + 5;
+            case '@':
+                return skipAnnotation(bytes, index + 1);
+            case '[':
+                int valueCount = readUnsignedShort(bytes, index + 1);
+                index += 3;
+                for (int i = 0; i < valueCount; ++i) {
+                    index = skipElementValue(bytes, index);
+                }
+                return index;
+            default:
+                // B C D F I J S Z s c
+                return index + 3;
+        }
+    }
+
+    private static String readClassName(byte[] bytes, int[] offsets, int classIndex) throws IOException {
+        int nameIndex = readUnsignedShort(bytes, offsets[classIndex]);
+        return readUtf8(bytes, offsets[nameIndex]).replace('/', '.');
+    }
+
+    /**
+     * 读取 Utf8 常量，offset 指向长度字段
+     */
+    private static String readUtf8(byte[] bytes, int offset) throws UnsupportedEncodingException {
+        int length = readUnsignedShort(bytes, offset);
+        int start = offset + 2;
+        for (int i = start; i < start + length; ++i) {
+            if (bytes[i] < 0 || bytes[i] == 0) {
+                return decodeModifiedUtf8(bytes, start, length);
+            }
+        }
+        return new String(bytes, start, length, "ISO-8859-1");
+    }
+
+    /**
+     * 解码 class 文件使用的 modified UTF-8
+     */
+    private static String decodeModifiedUtf8(byte[] bytes, int start, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int index = start;
+        int end = start + length;
+        while (index < end) {
+            int b = bytes[index++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[index++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[index++] & 0x3F) << 6) | (bytes[index++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int index) {
+        return ((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] bytes, int index) {
+        return ((bytes[index] & 0xFF) << 24) | ((bytes[index + 1] & 0xFF) << 16)
+                | ((bytes[index + 2] & 0xFF) << 8) | (bytes[index + 3] & 0xFF);
+    }
+}
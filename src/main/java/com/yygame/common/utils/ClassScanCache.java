@@ -0,0 +1,262 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 类扫描结果的磁盘缓存，供 {@link ClassScanner} 使用
+ * <p>
+ * 以 jar 包或目录中的一个包为单位缓存类的元数据（类名、访问标记、父类、接口、注解），
+ * 指纹为文件大小 + 修改时间（目录为所有类文件的总大小、最大修改时间以及文件名校验和），
+ * 指纹不变的条目直接复用，发生变化的才会重新读取 class 文件；
+ * 设置系统属性 {@link #FILE_PROPERTY} 为缓存文件路径可以为 {@link ClassUtil#scan} 启用缓存
+ *
+ * @author yzy
+ */
+public class ClassScanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassScanCache.class);
+
+    /**
+     * 默认缓存文件路径的系统属性
+     */
+    public static final String FILE_PROPERTY = "common.utils.scan.cache";
+
+    private static final int MAGIC = 0x59594353;
+
+    private static final int VERSION = 1;
+
+    private static final ConcurrentMap<String, ClassScanCache> DEFAULT_CACHES = new ConcurrentHashMap<>();
+
+    private final File file;
+
+    /**
+     * 缓存键 --> 缓存条目
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private volatile boolean modified;
+
+    /**
+     * 缓存条目
+     */
+    static final class Entry {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long checksum;
+
+        private final List<ClassMetadata> classes;
+
+        Entry(long size, long lastModified, long checksum, List<ClassMetadata> classes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.classes = classes;
+        }
+
+        private boolean matches(long size, long lastModified, long checksum) {
+            return this.size == size && this.lastModified == lastModified && this.checksum == checksum;
+        }
+    }
+
+    /**
+     * @param file 缓存文件，不存在时会在保存时创建
+     */
+    public ClassScanCache(File file) {
+        if (null == file) {
+            throw new IllegalArgumentException("缓存文件不能为空");
+        }
+        this.file = file;
+    }
+
+    /**
+     * 根据系统属性 {@link #FILE_PROPERTY} 获取默认的缓存
+     *
+     * @return 没有设置系统属性时返回 null
+     */
+    public static ClassScanCache getDefault() {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        ClassScanCache cache = DEFAULT_CACHES.get(path);
+        if (null == cache) {
+            cache = new ClassScanCache(new File(path));
+            ClassScanCache existsCache = DEFAULT_CACHES.putIfAbsent(path, cache);
+            if (null != existsCache) {
+                cache = existsCache;
+            }
+        }
+        return cache;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 获取缓存的类元数据
+     *
+     * @param key          缓存键
+     * @param size         当前的文件大小
+     * @param lastModified 当前的修改时间
+     * @param checksum     当前的校验和
+     * @return 指纹不一致或者没有缓存时返回 null
+     */
+    List<ClassMetadata> get(String key, long size, long lastModified, long checksum) {
+        ensureLoaded();
+        Entry entry = entries.get(key);
+        return null != entry && entry.matches(size, lastModified, checksum) ? entry.classes : null;
+    }
+
+    void put(String key, long size, long lastModified, long checksum, List<ClassMetadata> classes) {
+        ensureLoaded();
+        List<ClassMetadata> unboundClasses = new ArrayList<>(classes.size());
+        for (ClassMetadata metadata : classes) {
+            // 不持有读取器，避免引用类加载器
+            unboundClasses.add(metadata.bind(null));
+        }
+        entries.put(key, new Entry(size, lastModified, checksum, Collections.unmodifiableList(unboundClasses)));
+        modified = true;
+    }
+
+    /**
+     * 清空缓存，下次保存时会覆盖缓存文件
+     */
+    public void clear() {
+        ensureLoaded();
+        entries.clear();
+        modified = true;
+    }
+
+    /**
+     * 有修改时写入缓存文件， 先写入临时文件再重命名，写入失败只记录日志
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (null != parent && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                write(outputStream);
+            }
+            if (!tempFile.renameTo(file)) {
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("重命名临时文件失败");
+                }
+            }
+            modified = false;
+        } catch (IOException e) {
+            tempFile.delete();
+            logger.warn("写入类扫描缓存[" + file + "]失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (file.isFile()) {
+                try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    read(inputStream);
+                } catch (IOException | RuntimeException e) {
+                    entries.clear();
+                    logger.warn("读取类扫描缓存[" + file + "]失败，将重新扫描: " + e.getMessage());
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private void write(DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(VERSION);
+        outputStream.writeInt(entries.size());
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            outputStream.writeUTF(mapEntry.getKey());
+            outputStream.writeLong(entry.size);
+            outputStream.writeLong(entry.lastModified);
+            outputStream.writeLong(entry.checksum);
+            outputStream.writeInt(entry.classes.size());
+            for (ClassMetadata metadata : entry.classes) {
+                outputStream.writeUTF(metadata.getClassName());
+                outputStream.writeShort(metadata.getModifiers());
+                outputStream.writeUTF(null == metadata.getSuperClassName() ? "" : metadata.getSuperClassName());
+                writeNames(outputStream, metadata.getInterfaceNames());
+                writeNames(outputStream, metadata.getAnnotationNames());
+            }
+        }
+    }
+
+    private void read(DataInputStream inputStream) throws IOException {
+        if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) {
+            throw new IOException("缓存文件格式不正确");
+        }
+        int entryCount = inputStream.readInt();
+        for (int i = 0; i < entryCount; ++i) {
+            String key = inputStream.readUTF();
+            long size = inputStream.readLong();
+            long lastModified = inputStream.readLong();
+            long checksum = inputStream.readLong();
+            int classCount = inputStream.readInt();
+            List<ClassMetadata> classes = new ArrayList<>(classCount);
+            for (int j = 0; j < classCount; ++j) {
+                String className = inputStream.readUTF();
+                int access = inputStream.readUnsignedShort();
+                String superClassName = inputStream.readUTF();
+                String[] interfaceNames = readNames(inputStream);
+                String[] annotationNames = readNames(inputStream);
+                classes.add(new ClassMetadata(null, className, access, superClassName.isEmpty() ? null : superClassName,
+                        interfaceNames, annotationNames));
+            }
+            entries.put(key, new Entry(size, lastModified, checksum, Collections.unmodifiableList(classes)));
+        }
+    }
+
+    private static void writeNames(DataOutputStream outputStream, String[] names) throws IOException {
+        outputStream.writeShort(names.length);
+        for (String name : names) {
+            outputStream.writeUTF(name);
+        }
+    }
+
+    private static String[] readNames(DataInputStream inputStream) throws IOException {
+        String[] names = new String[inputStream.readUnsignedShort()];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = inputStream.readUTF();
+        }
+        return names;
+    }
+}
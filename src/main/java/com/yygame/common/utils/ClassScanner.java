@@ -0,0 +1,1509 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 类路径扫描器， {@link ClassUtil#scan} 的实现
+ * <p>
+ * 默认在当前线程中顺序扫描，设置 parallelism 大于 1 时使用 ForkJoinPool 并行扫描：
+ * 每个 jar 包、每个子目录都会作为单独的任务，jar 包中的类会分批并行加载，结果合并到并发集合中
+ * <p>
+ * 需要扫描的包会按类路径根分组，同一个 jar 包无论包含多少个需要扫描的包都只打开、遍历一次，遍历结束后立即关闭；
+ * fat jar 中嵌套的 jar 包（BOOT-INF/lib/*.jar）直接流式读取，不会解压到临时文件
+ * <p>
+ * 设置了 metadataAccepter 时，会先通过 {@link ClassMetadataReader} 读取 class 文件判断， 只有满足条件的类才会被加载
+ * <p>
+ * 设置了 {@link ClassScanCache} 时，未发生变化的 jar 包和目录直接使用缓存的元数据，不再读取 class 文件
+ * <pre>
+ * Set&lt;Class&lt;?&gt;&gt; classes = new ClassScanner()
+ *         .setMetadataAccepter(metadataAccepter)
+ *         .setAccepter(accepter)
+ *         .setParallelism(Runtime.getRuntime().availableProcessors())
+ *         .scan("com.yygame");
+ * </pre>
+ * 只需要部分结果时可以使用 {@link #stream(String...)} 或者 {@link #scan(ClassUtil.ClassVisitor, String...)}， 扫描会在满足条件后提前结束
+ *
+ * @author yzy
+ */
+public class ClassScanner {
+
+    /**
+     * 并行加载类时，每个任务最少处理的类的数量
+     */
+    private static final int LOAD_BATCH_SIZE = 64;
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final byte[] CLASS_SUFFIX_BYTES = CLASS_SUFFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private ClassLoader classLoader;
+
+    private boolean scanSubPackage = true;
+
+    private ClassUtil.ClassAccept accepter;
+
+    private ClassUtil.ClassMetadataAccept metadataAccepter;
+
+    private int parallelism = 1;
+
+    private ClassScanCache cache;
+
+    /**
+     * 不需要扫描的类路径根，参考 {@link ClassIndex#getRoot(URL, String)}
+     */
+    private Set<String> excludedRoots = Collections.emptySet();
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * 设置类加载器，默认使用当前线程的类加载器
+     */
+    public ClassScanner setClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        return this;
+    }
+
+    public boolean isScanSubPackage() {
+        return scanSubPackage;
+    }
+
+    /**
+     * 是否扫描子包，默认为 true
+     */
+    public ClassScanner setScanSubPackage(boolean scanSubPackage) {
+        this.scanSubPackage = scanSubPackage;
+        return this;
+    }
+
+    public ClassUtil.ClassAccept getAccepter() {
+        return accepter;
+    }
+
+    /**
+     * 类接受条件，为 null 表示接受所有的类
+     */
+    public ClassScanner setAccepter(ClassUtil.ClassAccept accepter) {
+        this.accepter = accepter;
+        return this;
+    }
+
+    public ClassUtil.ClassMetadataAccept getMetadataAccepter() {
+        return metadataAccepter;
+    }
+
+    /**
+     * 类元数据接受条件，在加载类之前判断，为 null 表示所有的类都需要加载后再判断
+     */
+    public ClassScanner setMetadataAccepter(ClassUtil.ClassMetadataAccept metadataAccepter) {
+        this.metadataAccepter = metadataAccepter;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 并行度，小于等于 1 表示在当前线程中顺序扫描
+     */
+    public ClassScanner setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ClassScanCache getCache() {
+        return cache;
+    }
+
+    /**
+     * 设置扫描结果的磁盘缓存，为 null 时使用 {@link ClassScanCache#getDefault()}
+     */
+    public ClassScanner setCache(ClassScanCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * 设置不需要扫描的类路径根，例如已经由编译期索引覆盖的类路径根
+     */
+    ClassScanner setExcludedRoots(Set<String> excludedRoots) {
+        this.excludedRoots = null == excludedRoots ? Collections.<String>emptySet() : excludedRoots;
+        return this;
+    }
+
+    /**
+     * 扫描指定包下满足条件的类
+     *
+     * @param basePackages 包列表，每个元素可以是使用分隔符分割的多个包名
+     * @return 始终返回非 null
+     */
+    public Set<Class<?>> scan(String... basePackages) {
+        Set<String> packages = ClassUtil.extractPackages(basePackages);
+        if (packages.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        ScanContext context = createContext(parallelism > 1);
+
+        ScanTask rootTask = new GroupTask(context, createRootTasks(context, packages, true));
+
+        if (context.parallel) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(rootTask);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            rootTask.compute();
+        }
+        if (null != context.cache) {
+            context.cache.save();
+        }
+        return new HashSet<>(context.classSet);
+    }
+
+    /**
+     * 惰性扫描指定包下满足条件的类，类在流被消费时才会被发现和加载， findFirst、anyMatch 等短路操作会提前结束扫描；
+     * parallelism 大于 1 时返回并行流，按类路径根以及类名分批拆分
+     * <p>
+     * 使用了缓存时，关闭流才会写入缓存文件
+     *
+     * @param basePackages 包列表，每个元素可以是使用分隔符分割的多个包名
+     * @return 始终返回非 null
+     */
+    public Stream<Class<?>> stream(String... basePackages) {
+        final ClassSpliterator spliterator = createSpliterator(basePackages);
+        Stream<Class<?>> stream = StreamSupport.stream(spliterator, parallelism > 1);
+        if (null != spliterator.context.cache) {
+            stream = stream.onClose(new Runnable() {
+                @Override
+                public void run() {
+                    spliterator.context.cache.save();
+                }
+            });
+        }
+        return stream;
+    }
+
+    /**
+     * 扫描指定包下满足条件的类，每发现一个类回调一次，回调返回 false 时停止扫描；
+     * parallelism 大于 1 时回调会在多个线程中同时执行
+     *
+     * @param visitor      回调
+     * @param basePackages 包列表，每个元素可以是使用分隔符分割的多个包名
+     */
+    public void scan(final ClassUtil.ClassVisitor visitor, String... basePackages) {
+        final ClassSpliterator spliterator = createSpliterator(basePackages);
+        final ScanContext context = spliterator.context;
+        final Consumer<Class<?>> consumer = new Consumer<Class<?>>() {
+            @Override
+            public void accept(Class<?> clazz) {
+                if (!visitor.visit(clazz)) {
+                    context.stopped = true;
+                }
+            }
+        };
+
+        if (parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        StreamSupport.stream(spliterator, true).forEach(consumer);
+                    }
+                }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("扫描类被中断", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException("扫描类错误！", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            while (spliterator.tryAdvance(consumer)) {
+                // 回调中处理
+            }
+        }
+
+        if (null != context.cache) {
+            context.cache.save();
+        }
+    }
+
+    private ClassSpliterator createSpliterator(String... basePackages) {
+        // 由 Spliterator 拆分实现并行，任务本身不再拆分
+        ScanContext context = createContext(false);
+        Set<String> packages = ClassUtil.extractPackages(basePackages);
+        List<RootTask> roots = new ArrayList<>();
+        if (!packages.isEmpty()) {
+            for (ScanTask task : createRootTasks(context, packages, false)) {
+                roots.add((RootTask) task);
+            }
+        }
+        return new ClassSpliterator(context, roots, 0, roots.size());
+    }
+
+    private ScanContext createContext(boolean parallel) {
+        ClassLoader loader = null == classLoader ? Thread.currentThread().getContextClassLoader() : classLoader;
+        ClassScanCache scanCache = null == cache ? ClassScanCache.getDefault() : cache;
+        return new ScanContext(loader, accepter, metadataAccepter, scanCache, excludedRoots, scanSubPackage, parallel);
+    }
+
+    /**
+     * 按类路径根分组创建扫描任务： 同一个 jar 包中的多个包只遍历一次，
+     * 目录中被其他包目录包含的子包目录不会重复扫描
+     *
+     * @param shareFatJar 为 true 时同一个 fat jar 中的内部 jar 包共享外层 jar 包， 否则每个内部 jar 包都是单独的 {@link RootTask}
+     */
+    private static List<ScanTask> createRootTasks(ScanContext context, Set<String> packages, boolean shareFatJar) {
+        Map<String, String> dirPackages = new TreeMap<>();
+        Map<String, URL> jarUrls = new LinkedHashMap<>();
+        Map<String, Set<String>> jarPackages = new HashMap<>();
+
+        for (String packageName : packages) {
+            try {
+                String packagePath = packageName.replace(".", "/");
+                Enumeration<URL> urls = context.classLoader.getResources(packagePath);
+
+                while (urls.hasMoreElements()) {
+                    URL url = urls.nextElement();
+                    if (null == url || context.excludedRoots.contains(ClassIndex.getRoot(url, packagePath))) {
+                        continue;
+                    }
+
+                    String protocol = url.getProtocol();
+
+                    if (protocol.equalsIgnoreCase("file")) {
+                        dirPackages.put(toPath(url).toAbsolutePath().toString(), packageName);
+                    } else if (protocol.equalsIgnoreCase("jar")) {
+                        String jarPath = urlToAbsolutePath(url.getPath());
+                        if (!jarUrls.containsKey(jarPath)) {
+                            jarUrls.put(jarPath, url);
+                            jarPackages.put(jarPath, new TreeSet<String>());
+                        }
+                        jarPackages.get(jarPath).add(packageName);
+                    }
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("解析[" + packageName + "]下的类错误！", e);
+            }
+        }
+
+        List<ScanTask> tasks = new ArrayList<>();
+        List<String> scannedDirs = new ArrayList<>();
+        for (Map.Entry<String, String> entry : dirPackages.entrySet()) {
+            String dirPath = entry.getKey();
+            // 扫描子包时，包含在其他包目录中的目录不需要重复扫描
+            if (context.scanSubPackage && isInAnyDir(dirPath, scannedDirs)) {
+                continue;
+            }
+            scannedDirs.add(dirPath);
+            Path dir = Paths.get(dirPath);
+            tasks.add(null == context.cache ? new DirectoryTask(context, dir, entry.getValue()) : new CachedDirectoryTask(context, dir, entry.getValue()));
+        }
+        // fat jar 路径 --> 内部条目路径 --> 需要扫描的包
+        Map<String, Map<String, Set<String>>> fatJars = new LinkedHashMap<>();
+        for (Map.Entry<String, URL> entry : jarUrls.entrySet()) {
+            Set<String> packageNames = jarPackages.get(entry.getKey());
+            String[] nestedPath = new File(entry.getKey()).isFile() ? null : parseNestedJarPath(entry.getValue());
+            if (null == nestedPath) {
+                tasks.add(new JarTask(context, entry.getValue(), entry.getKey(), packageNames));
+                continue;
+            }
+            Map<String, Set<String>> entryPackages = fatJars.get(nestedPath[0]);
+            if (null == entryPackages) {
+                entryPackages = new LinkedHashMap<>();
+                fatJars.put(nestedPath[0], entryPackages);
+            }
+            if (entryPackages.containsKey(nestedPath[1])) {
+                entryPackages.get(nestedPath[1]).addAll(packageNames);
+            } else {
+                entryPackages.put(nestedPath[1], packageNames);
+            }
+        }
+        for (Map.Entry<String, Map<String, Set<String>>> entry : fatJars.entrySet()) {
+            File fatJar = new File(entry.getKey());
+            if (shareFatJar) {
+                tasks.add(new FatJarTask(context, fatJar, entry.getValue()));
+                continue;
+            }
+            for (Map.Entry<String, Set<String>> entryPackages : entry.getValue().entrySet()) {
+                tasks.add(new NestedArchiveTask(context, fatJar, null, entryPackages.getKey(), entryPackages.getValue()));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 条目名是否以 .class 结尾
+     */
+    private static boolean isClassEntry(byte[] name, int offset, int length) {
+        if (length <= CLASS_SUFFIX_BYTES.length) {
+            return false;
+        }
+        int start = offset + length - CLASS_SUFFIX_BYTES.length;
+        for (int i = 0; i < CLASS_SUFFIX_BYTES.length; ++i) {
+            if (name[start + i] != CLASS_SUFFIX_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 返回最后一个 target 的绝对位置，不存在时返回 offset - 1
+     */
+    private static int lastIndexOf(byte[] bytes, int offset, int length, byte target) {
+        for (int i = offset + length - 1; i >= offset; --i) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return offset - 1;
+    }
+
+    private static boolean isInAnyDir(String path, List<String> dirs) {
+        for (String dir : dirs) {
+            if (path.startsWith(dir) && path.length() > dir.length() && path.charAt(dir.length()) == File.separatorChar) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 包名前缀树，一次遍历即可匹配多个包， 匹配时不会创建新的字符串
+     */
+    static final class PackageTrie {
+
+        private String[] segments = new String[0];
+
+        /**
+         * segments 的 UTF-8 编码，用于直接匹配 jar 包中的条目名
+         */
+        private byte[][] segmentBytes = new byte[0][];
+
+        private PackageTrie[] children = new PackageTrie[0];
+
+        /**
+         * 是否是需要扫描的包
+         */
+        private boolean terminal;
+
+        PackageTrie(Set<String> packages) {
+            for (String packageName : packages) {
+                add(packageName);
+            }
+        }
+
+        private PackageTrie() {
+        }
+
+        private void add(String packageName) {
+            PackageTrie node = this;
+            for (String segment : StringUtils.split(packageName, '.')) {
+                PackageTrie child = node.find(segment, 0, segment.length());
+                if (null == child) {
+                    child = new PackageTrie();
+                    int size = node.segments.length;
+                    node.segments = Arrays.copyOf(node.segments, size + 1);
+                    node.segmentBytes = Arrays.copyOf(node.segmentBytes, size + 1);
+                    node.children = Arrays.copyOf(node.children, size + 1);
+                    node.segments[size] = segment;
+                    node.segmentBytes[size] = segment.getBytes(StandardCharsets.UTF_8);
+                    node.children[size] = child;
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        private PackageTrie find(String name, int start, int length) {
+            for (int i = 0; i < segments.length; ++i) {
+                String segment = segments[i];
+                if (segment.length() == length && name.regionMatches(start, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private PackageTrie find(byte[] name, int start, int length) {
+            for (int i = 0; i < segmentBytes.length; ++i) {
+                byte[] segment = segmentBytes[i];
+                if (segment.length == length && regionMatches(name, start, segment)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private static boolean regionMatches(byte[] name, int start, byte[] segment) {
+            for (int i = 0; i < segment.length; ++i) {
+                if (name[start + i] != segment[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 判断 jar 包条目所在的包是否需要扫描，直接比较条目名的原始字节
+         *
+         * @param name              中央目录数据
+         * @param offset            条目名的起始位置
+         * @param end               条目名中最后一个 '/' 的绝对位置
+         * @param includeSubPackage 是否包含子包
+         * @return 返回是否匹配
+         */
+        boolean matches(byte[] name, int offset, int end, boolean includeSubPackage) {
+            PackageTrie node = this;
+            int start = offset;
+            while (start <= end) {
+                if (includeSubPackage && node.terminal) {
+                    return true;
+                }
+                int next = start;
+                while (name[next] != '/') {
+                    ++next;
+                }
+                node = node.find(name, start, next - start);
+                if (null == node) {
+                    return false;
+                }
+                start = next + 1;
+            }
+            return node.terminal;
+        }
+
+        /**
+         * 判断类所在的包是否需要扫描
+         *
+         * @param name              类名或者 jar 包中的条目名
+         * @param start             包名的起始位置
+         * @param end               最后一个分隔符的位置，即包名的结束位置
+         * @param separator         包名分隔符， '.' 或 '/'
+         * @param includeSubPackage 是否包含子包
+         * @return 返回是否匹配
+         */
+        boolean matches(String name, int start, int end, char separator, boolean includeSubPackage) {
+            PackageTrie node = this;
+            while (start <= end) {
+                if (includeSubPackage && node.terminal) {
+                    return true;
+                }
+                int next = name.indexOf(separator, start);
+                node = node.find(name, start, next - start);
+                if (null == node) {
+                    return false;
+                }
+                start = next + 1;
+            }
+            return node.terminal;
+        }
+    }
+
+    /**
+     * 一次扫描的上下文，结果保存在并发集合中
+     */
+    private static final class ScanContext {
+
+        private final ClassLoader classLoader;
+
+        private final ClassUtil.ClassAccept accepter;
+
+        private final ClassUtil.ClassMetadataAccept metadataAccepter;
+
+        private final ClassMetadataReader metadataReader;
+
+        private final ClassScanCache cache;
+
+        private final Set<String> excludedRoots;
+
+        private final boolean scanSubPackage;
+
+        private final boolean parallel;
+
+        private final Set<Class<?>> classSet = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+        /**
+         * 是否停止扫描，由回调设置
+         */
+        private volatile boolean stopped;
+
+        private ScanContext(ClassLoader classLoader, ClassUtil.ClassAccept accepter, ClassUtil.ClassMetadataAccept metadataAccepter,
+                            ClassScanCache cache, Set<String> excludedRoots, boolean scanSubPackage, boolean parallel) {
+            this.classLoader = classLoader;
+            this.accepter = accepter;
+            this.metadataAccepter = metadataAccepter;
+            this.cache = cache;
+            this.excludedRoots = excludedRoots;
+            this.metadataReader = null == metadataAccepter && null == cache ? null : new ClassMetadataReader(classLoader);
+            this.scanSubPackage = scanSubPackage;
+            this.parallel = parallel;
+        }
+
+        /**
+         * 满足条件则加入结果集
+         *
+         * @return 返回是否满足条件
+         */
+        private boolean acceptIfMatch(Class<?> clazz) {
+            if (null != clazz && (null == accepter || accepter.accept(clazz))) {
+                classSet.add(clazz);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 加载类之前根据元数据判断
+         *
+         * @param inputStream class 文件输入流
+         * @return 没有设置元数据条件或者 class 文件无法解析时返回 true， 交由加载后的类判断
+         */
+        private boolean acceptMetadata(InputStream inputStream) {
+            if (null == metadataAccepter) {
+                return true;
+            }
+            ClassMetadata metadata = readMetadata(inputStream);
+            return null == metadata || metadataAccepter.accept(metadata);
+        }
+
+        private boolean acceptMetadata(Path classFile) {
+            if (null == metadataAccepter) {
+                return true;
+            }
+            ClassMetadata metadata = readMetadata(classFile);
+            return null == metadata || metadataAccepter.accept(metadata);
+        }
+
+        /**
+         * 判断缓存中的元数据
+         */
+        private boolean acceptMetadata(ClassMetadata metadata) {
+            return null == metadataAccepter || metadataAccepter.accept(metadataReader.register(metadata));
+        }
+
+        /**
+         * @return class 文件无法读取或解析时返回 null
+         */
+        private ClassMetadata readMetadata(InputStream inputStream) {
+            try {
+                return metadataReader.read(inputStream);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private ClassMetadata readMetadata(Path classFile) {
+            try (InputStream inputStream = Files.newInputStream(classFile)) {
+                return readMetadata(inputStream);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private Class<?> loadClass(String className) {
+            try {
+                return classLoader.loadClass(className);
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+    }
+
+    private abstract static class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final transient ScanContext context;
+
+        ScanTask(ScanContext context) {
+            this.context = context;
+        }
+
+        @Override
+        protected abstract void compute();
+
+        /**
+         * 执行子任务，并行模式下交给 ForkJoinPool， 否则在当前线程中依次执行
+         */
+        protected void execute(List<? extends ScanTask> subTasks) {
+            if (subTasks.isEmpty()) {
+                return;
+            }
+            if (context.parallel) {
+                invokeAll(subTasks);
+            } else {
+                for (ScanTask subTask : subTasks) {
+                    subTask.compute();
+                }
+            }
+        }
+    }
+
+    private static final class GroupTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<ScanTask> tasks;
+
+        GroupTask(ScanContext context, List<ScanTask> tasks) {
+            super(context);
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            execute(tasks);
+        }
+    }
+
+    /**
+     * 收集目录中的类文件，类名由包名和相对路径拼接而成
+     */
+    static final class ClassFileCollector extends SimpleFileVisitor<Path> {
+
+        private final Path root;
+
+        private final boolean includeSubPackage;
+
+        /**
+         * 当前目录对应的包名
+         */
+        private final Deque<String> packageNames = new ArrayDeque<>();
+
+        private final List<String> classNames = new ArrayList<>();
+
+        private final List<Path> classFiles = new ArrayList<>();
+
+        private long size;
+
+        private long lastModified;
+
+        private long pathHash;
+
+        private ClassFileCollector(Path root, String basePackage, boolean includeSubPackage) {
+            this.root = root;
+            this.includeSubPackage = includeSubPackage;
+            this.packageNames.push(basePackage);
+        }
+
+        /**
+         * 遍历目录，不扫描子包时只遍历根目录
+         */
+        static ClassFileCollector collect(Path root, String basePackage, boolean includeSubPackage) throws IOException {
+            ClassFileCollector collector = new ClassFileCollector(root, basePackage, includeSubPackage);
+            Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, collector);
+            return collector;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (dir.equals(root)) {
+                return FileVisitResult.CONTINUE;
+            }
+            if (!includeSubPackage) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            packageNames.push(packageNames.peek() + '.' + dir.getFileName());
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+            if (!dir.equals(root)) {
+                packageNames.pop();
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            String fileName = file.getFileName().toString();
+            if (attrs.isRegularFile() && fileName.endsWith(CLASS_SUFFIX)) {
+                String className = packageNames.peek() + '.' + fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+                classNames.add(className);
+                classFiles.add(file);
+                size += attrs.size();
+                lastModified = Math.max(lastModified, attrs.lastModifiedTime().toMillis());
+                pathHash += className.hashCode();
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+        }
+
+        List<String> getClassNames() {
+            return classNames;
+        }
+
+        List<Path> getClassFiles() {
+            return classFiles;
+        }
+
+        /**
+         * 目录指纹的校验和，类文件数量以及类名的哈希
+         */
+        long getChecksum() {
+            return ((long) classNames.size() << 32) ^ pathHash;
+        }
+    }
+
+    /**
+     * 扫描一个类路径根，先收集满足条件的类名，再分批加载
+     */
+    private abstract static class RootTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        RootTask(ScanContext context) {
+            super(context);
+        }
+
+        /**
+         * 收集满足包条件以及元数据条件的类名，不会加载类
+         */
+        abstract List<String> collectClassNames();
+
+        @Override
+        protected void compute() {
+            List<String> classNames = collectClassNames();
+            new LoadTask(context, classNames, 0, classNames.size()).compute();
+        }
+    }
+
+    /**
+     * 扫描目录，目录中的类文件收集到同一个列表中， 类的加载分批执行
+     */
+    private static final class DirectoryTask extends RootTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        private final String basePackage;
+
+        DirectoryTask(ScanContext context, Path dir, String basePackage) {
+            super(context);
+            this.dir = dir;
+            this.basePackage = basePackage;
+        }
+
+        @Override
+        List<String> collectClassNames() {
+            ClassFileCollector collector;
+            try {
+                collector = ClassFileCollector.collect(dir, basePackage, context.scanSubPackage);
+            } catch (IOException e) {
+                throw new RuntimeException("解析[" + dir + "]下的类错误！", e);
+            }
+
+            List<String> classNames = collector.classNames;
+            if (null != context.metadataAccepter) {
+                classNames = new ArrayList<>(collector.classNames.size());
+                for (int i = 0; i < collector.classFiles.size(); ++i) {
+                    if (context.acceptMetadata(collector.classFiles.get(i))) {
+                        classNames.add(collector.classNames.get(i));
+                    }
+                }
+            }
+            return classNames;
+        }
+    }
+
+    /**
+     * 使用缓存扫描目录，指纹一致时直接使用缓存的元数据，否则读取目录下所有的 class 文件
+     */
+    private static final class CachedDirectoryTask extends RootTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        private final String basePackage;
+
+        CachedDirectoryTask(ScanContext context, Path dir, String basePackage) {
+            super(context);
+            this.dir = dir;
+            this.basePackage = basePackage;
+        }
+
+        @Override
+        List<String> collectClassNames() {
+            ClassFileCollector collector;
+            try {
+                // 缓存与是否扫描子包无关，总是收集子包中的类
+                collector = ClassFileCollector.collect(dir, basePackage, true);
+            } catch (IOException e) {
+                throw new RuntimeException("解析[" + dir + "]下的类错误！", e);
+            }
+
+            String cacheKey = dir.toAbsolutePath() + "!/" + basePackage;
+            List<ClassMetadata> classes = context.cache.get(cacheKey, collector.size, collector.lastModified, collector.getChecksum());
+            if (null == classes) {
+                classes = new ArrayList<>(collector.classFiles.size());
+                boolean complete = true;
+                for (Path classFile : collector.classFiles) {
+                    ClassMetadata metadata = context.readMetadata(classFile);
+                    if (null == metadata) {
+                        complete = false;
+                    } else {
+                        classes.add(metadata);
+                    }
+                }
+                if (complete) {
+                    context.cache.put(cacheKey, collector.size, collector.lastModified, collector.getChecksum(), classes);
+                }
+            }
+
+            List<String> classNames = new ArrayList<>(classes.size());
+            for (ClassMetadata metadata : classes) {
+                String className = metadata.getClassName();
+                if ((context.scanSubPackage || className.lastIndexOf('.') == basePackage.length()) && context.acceptMetadata(metadata)) {
+                    classNames.add(className);
+                }
+            }
+            return classNames;
+        }
+    }
+
+    /**
+     * 扫描压缩包（jar 包、嵌套的 jar 包）， 一次遍历匹配所有需要扫描的包， 类名过滤在当前任务中完成， 类的加载分批执行
+     */
+    private abstract static class ArchiveTask extends RootTask {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final transient Set<String> packages;
+
+        protected final transient PackageTrie packageTrie;
+
+        /**
+         * 是否有无法解析的类文件，此时扫描结果不写入缓存
+         */
+        private boolean cacheIncomplete;
+
+        ArchiveTask(ScanContext context, Set<String> packages) {
+            super(context);
+            this.packages = packages;
+            this.packageTrie = new PackageTrie(packages);
+        }
+
+        /**
+         * @return 用于计算缓存指纹的本地文件，不支持缓存时返回 null
+         */
+        protected abstract File getFingerprintFile();
+
+        /**
+         * @return 压缩包的描述，用于缓存键以及错误信息
+         */
+        protected abstract String getArchiveName();
+
+        /**
+         * @return 缓存指纹中的校验和
+         */
+        protected long getChecksum() {
+            return 0L;
+        }
+
+        /**
+         * 遍历压缩包中的类
+         *
+         * @param classNames     满足条件的类名
+         * @param scannedClasses 不为 null 时记录包以及子包下所有类的元数据， 用于写入缓存
+         */
+        protected abstract void scanEntries(List<String> classNames, List<ClassMetadata> scannedClasses) throws IOException;
+
+        @Override
+        List<String> collectClassNames() {
+            List<String> classNames = new ArrayList<>();
+            try {
+                File file = null == context.cache ? null : getFingerprintFile();
+                String cacheKey = null == file ? null : getArchiveName() + "!/" + StringUtils.join(packages, ',');
+                List<ClassMetadata> cachedClasses = null == cacheKey ? null : context.cache.get(cacheKey, file.length(), file.lastModified(), getChecksum());
+
+                if (null != cachedClasses) {
+                    for (ClassMetadata metadata : cachedClasses) {
+                        if (isAcceptedClass(metadata.getClassName()) && context.acceptMetadata(metadata)) {
+                            classNames.add(metadata.getClassName());
+                        }
+                    }
+                } else {
+                    List<ClassMetadata> scannedClasses = null == cacheKey ? null : new ArrayList<ClassMetadata>();
+                    scanEntries(classNames, scannedClasses);
+                    if (null != scannedClasses && !cacheIncomplete) {
+                        context.cache.put(cacheKey, file.length(), file.lastModified(), getChecksum(), scannedClasses);
+                    }
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("解析[" + getArchiveName() + "]下的类错误！", e);
+            }
+
+            return classNames;
+        }
+
+        /**
+         * 是否需要读取类的元数据
+         */
+        protected boolean isReadMetadata(List<ClassMetadata> scannedClasses) {
+            return null != scannedClasses || null != context.metadataAccepter;
+        }
+
+        /**
+         * 处理一个所在包满足条件的类条目
+         *
+         * @param className      类名
+         * @param inputStream    类文件输入流，不需要读取元数据时为 null
+         * @param classNames     满足条件的类名
+         * @param scannedClasses 需要写入缓存的元数据
+         */
+        protected void addClass(String className, InputStream inputStream, List<String> classNames,
+                                List<ClassMetadata> scannedClasses) throws IOException {
+            if (null == inputStream) {
+                classNames.add(className);
+                return;
+            }
+
+            ClassMetadata metadata = context.readMetadata(inputStream);
+            if (null != scannedClasses) {
+                if (null == metadata) {
+                    // 与不使用缓存时一致，无法解析的类仍然作为候选，只是不写入缓存
+                    cacheIncomplete = true;
+                } else {
+                    scannedClasses.add(metadata);
+                }
+                if (!isAcceptedClass(className)) {
+                    return;
+                }
+            }
+            if (null == context.metadataAccepter || null == metadata || context.metadataAccepter.accept(metadata)) {
+                classNames.add(className);
+            }
+        }
+
+        protected boolean isAcceptedClass(String className) {
+            return packageTrie.matches(className, 0, className.lastIndexOf('.'), '.', context.scanSubPackage);
+        }
+
+        /**
+         * 条目名转换成类名， prefixLength 为条目名中需要去掉的前缀长度
+         */
+        protected static String toClassName(String entryName, int prefixLength) {
+            return entryName.substring(prefixLength, entryName.length() - CLASS_SUFFIX.length()).replace('/', '.');
+        }
+    }
+
+    /**
+     * 扫描 jar 包，只需要类名时本地 jar 包直接读取中央目录按字节过滤，需要读取元数据或者不是本地 jar 包时使用 JarFile 遍历，
+     * 结束后关闭 jar 包
+     */
+    private static final class JarTask extends ArchiveTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final URL url;
+
+        private final String jarPath;
+
+        JarTask(ScanContext context, URL url, String jarPath, Set<String> packages) {
+            super(context, packages);
+            this.url = url;
+            this.jarPath = jarPath;
+        }
+
+        @Override
+        protected File getFingerprintFile() {
+            File file = new File(jarPath);
+            return file.isFile() ? file : null;
+        }
+
+        @Override
+        protected String getArchiveName() {
+            File file = getFingerprintFile();
+            return null == file ? url.toString() : file.getAbsolutePath();
+        }
+
+        @Override
+        protected void scanEntries(List<String> classNames, List<ClassMetadata> scannedClasses) throws IOException {
+            final boolean includeSubPackage = context.scanSubPackage || null != scannedClasses;
+            boolean readMetadata = isReadMetadata(scannedClasses);
+
+            JarFile jarFile = null;
+            try {
+                File file = new File(jarPath);
+                List<String> entryNames = null;
+                if (!readMetadata && file.isFile()) {
+                    // 只需要类名时直接读取中央目录，不打开 JarFile
+                    entryNames = ZipCentralDirectory.listEntryNames(file, new ZipCentralDirectory.EntryFilter() {
+                        @Override
+                        public boolean accept(byte[] name, int offset, int length) {
+                            return isClassEntry(name, offset, length)
+                                    && packageTrie.matches(name, offset, lastIndexOf(name, offset, length, (byte) '/'), includeSubPackage);
+                        }
+                    });
+                }
+                if (null == entryNames) {
+                    // 需要读取元数据时 JarFile 总是要打开，只解析一次中央目录
+                    jarFile = openJarFile(url, jarPath);
+                    entryNames = listEntryNames(jarFile, includeSubPackage);
+                }
+
+                for (String entryName : entryNames) {
+                    String className = toClassName(entryName, 0);
+                    if (!readMetadata) {
+                        addClass(className, null, classNames, scannedClasses);
+                        continue;
+                    }
+                    try (InputStream inputStream = jarFile.getInputStream(jarFile.getEntry(entryName))) {
+                        addClass(className, inputStream, classNames, scannedClasses);
+                    }
+                }
+            } finally {
+                if (null != jarFile) {
+                    jarFile.close();
+                }
+            }
+        }
+
+        private List<String> listEntryNames(JarFile jarFile, boolean includeSubPackage) {
+            List<String> entryNames = new ArrayList<>();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(CLASS_SUFFIX) && packageTrie.matches(entryName, 0, entryName.lastIndexOf('/'), '/', includeSubPackage)) {
+                    entryNames.add(entryName);
+                }
+            }
+            return entryNames;
+        }
+    }
+
+    /**
+     * 扫描 fat jar（例如 Spring Boot 可执行 jar 包）， 外层 jar 包只打开一次，
+     * 其中的每个内部 jar 包或类目录（BOOT-INF/lib/*.jar、BOOT-INF/classes）作为单独的任务并行扫描
+     */
+    private static final class FatJarTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File file;
+
+        /**
+         * 内部条目路径 --> 需要扫描的包
+         */
+        private final transient Map<String, Set<String>> entryPackages;
+
+        FatJarTask(ScanContext context, File file, Map<String, Set<String>> entryPackages) {
+            super(context);
+            this.file = file;
+            this.entryPackages = entryPackages;
+        }
+
+        @Override
+        protected void compute() {
+            try (ZipFile zipFile = new ZipFile(file)) {
+                List<ScanTask> subTasks = new ArrayList<>(entryPackages.size());
+                for (Map.Entry<String, Set<String>> entry : entryPackages.entrySet()) {
+                    subTasks.add(new NestedArchiveTask(context, file, zipFile, entry.getKey(), entry.getValue()));
+                }
+                // 子任务全部结束后才会关闭外层 jar 包
+                execute(subTasks);
+            } catch (IOException e) {
+                throw new RuntimeException("解析[" + file + "]下的类错误！", e);
+            }
+        }
+    }
+
+    /**
+     * 扫描 fat jar 中的一个内部 jar 包或者类目录，内部 jar 包使用 ZipInputStream 流式读取，不会解压到临时文件
+     */
+    private static final class NestedArchiveTask extends ArchiveTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File file;
+
+        /**
+         * 外层 jar 包，由 {@link FatJarTask} 共享，为 null 时在收集类名时打开
+         */
+        private transient ZipFile zipFile;
+
+        private final String entryPath;
+
+        NestedArchiveTask(ScanContext context, File file, ZipFile zipFile, String entryPath, Set<String> packages) {
+            super(context, packages);
+            this.file = file;
+            this.zipFile = zipFile;
+            this.entryPath = entryPath;
+        }
+
+        @Override
+        List<String> collectClassNames() {
+            if (null != zipFile) {
+                return super.collectClassNames();
+            }
+            try (ZipFile ownZipFile = new ZipFile(file)) {
+                zipFile = ownZipFile;
+                return super.collectClassNames();
+            } catch (IOException e) {
+                throw new RuntimeException("解析[" + getArchiveName() + "]下的类错误！", e);
+            } finally {
+                zipFile = null;
+            }
+        }
+
+        @Override
+        protected File getFingerprintFile() {
+            return file;
+        }
+
+        @Override
+        protected String getArchiveName() {
+            return file.getAbsolutePath() + "!/" + entryPath;
+        }
+
+        @Override
+        protected long getChecksum() {
+            ZipEntry entry = zipFile.getEntry(entryPath);
+            return null == entry ? 0L : entry.getCrc();
+        }
+
+        @Override
+        protected void scanEntries(List<String> classNames, List<ClassMetadata> scannedClasses) throws IOException {
+            ZipEntry nestedEntry = zipFile.getEntry(entryPath);
+            if (null == nestedEntry || nestedEntry.isDirectory()) {
+                scanDirectory(classNames, scannedClasses);
+                return;
+            }
+
+            boolean includeSubPackage = context.scanSubPackage || null != scannedClasses;
+            boolean readMetadata = isReadMetadata(scannedClasses);
+            try (ZipInputStream inputStream = new ZipInputStream(new BufferedInputStream(zipFile.getInputStream(nestedEntry)))) {
+                ZipEntry entry;
+                while ((entry = inputStream.getNextEntry()) != null) {
+                    String entryName = entry.getName();
+                    if (entryName.endsWith(CLASS_SUFFIX) && packageTrie.matches(entryName, 0, entryName.lastIndexOf('/'), '/', includeSubPackage)) {
+                        // ZipInputStream 读取到当前条目末尾时返回 -1
+                        addClass(toClassName(entryName, 0), readMetadata ? inputStream : null, classNames, scannedClasses);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 扫描外层 jar 包中的类目录，例如 BOOT-INF/classes
+         */
+        private void scanDirectory(List<String> classNames, List<ClassMetadata> scannedClasses) throws IOException {
+            String prefix = entryPath.endsWith("/") ? entryPath : entryPath + "/";
+            boolean includeSubPackage = context.scanSubPackage || null != scannedClasses;
+            boolean readMetadata = isReadMetadata(scannedClasses);
+
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entryName.startsWith(prefix) || !entryName.endsWith(CLASS_SUFFIX)
+                        || !packageTrie.matches(entryName, prefix.length(), entryName.lastIndexOf('/'), '/', includeSubPackage)) {
+                    continue;
+                }
+                String className = toClassName(entryName, prefix.length());
+                if (!readMetadata) {
+                    addClass(className, null, classNames, scannedClasses);
+                    continue;
+                }
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    addClass(className, inputStream, classNames, scannedClasses);
+                }
+            }
+        }
+    }
+
+    /**
+     * 惰性产生类的 Spliterator， 类路径根在第一次需要时才会被遍历，类在被消费时才会被加载；
+     * 拆分时优先按类路径根拆分，只剩一个类路径根时按类名拆分
+     */
+    private static final class ClassSpliterator implements Spliterator<Class<?>> {
+
+        private final ScanContext context;
+
+        private final List<RootTask> roots;
+
+        private int rootIndex;
+
+        private final int rootFence;
+
+        private List<String> classNames = Collections.emptyList();
+
+        private int nameIndex;
+
+        private int nameFence;
+
+        ClassSpliterator(ScanContext context, List<RootTask> roots, int rootIndex, int rootFence) {
+            this.context = context;
+            this.roots = roots;
+            this.rootIndex = rootIndex;
+            this.rootFence = rootFence;
+        }
+
+        /**
+         * 只处理部分类名的 Spliterator
+         */
+        private static ClassSpliterator ofClassNames(ScanContext context, List<String> classNames, int nameIndex, int nameFence) {
+            ClassSpliterator spliterator = new ClassSpliterator(context, Collections.<RootTask>emptyList(), 0, 0);
+            spliterator.classNames = classNames;
+            spliterator.nameIndex = nameIndex;
+            spliterator.nameFence = nameFence;
+            return spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Class<?>> action) {
+            while (!context.stopped) {
+                if (nameIndex < nameFence) {
+                    Class<?> clazz = context.loadClass(classNames.get(nameIndex++));
+                    // 同一个类可能出现在多个类路径根中
+                    if (null != clazz && (null == context.accepter || context.accepter.accept(clazz)) && context.classSet.add(clazz)) {
+                        action.accept(clazz);
+                        return true;
+                    }
+                    continue;
+                }
+                if (rootIndex >= rootFence) {
+                    return false;
+                }
+                classNames = roots.get(rootIndex++).collectClassNames();
+                nameIndex = 0;
+                nameFence = classNames.size();
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Class<?>> trySplit() {
+            if (rootFence - rootIndex > 1) {
+                int middle = (rootIndex + rootFence) >>> 1;
+                ClassSpliterator prefix = new ClassSpliterator(context, roots, rootIndex, middle);
+                rootIndex = middle;
+                return prefix;
+            }
+            if (nameFence - nameIndex > LOAD_BATCH_SIZE) {
+                int middle = (nameIndex + nameFence) >>> 1;
+                ClassSpliterator prefix = ofClassNames(context, classNames, nameIndex, middle);
+                nameIndex = middle;
+                return prefix;
+            }
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return rootIndex < rootFence ? Long.MAX_VALUE : nameFence - nameIndex;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL;
+        }
+    }
+
+    /**
+     * 加载类并检查是否满足条件，并行模式下数量较多时会拆分成两个子任务
+     */
+    private static final class LoadTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> classNames;
+
+        private final int from;
+
+        private final int to;
+
+        LoadTask(ScanContext context, List<String> classNames, int from, int to) {
+            super(context);
+            this.classNames = classNames;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (context.parallel && to - from > LOAD_BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                List<LoadTask> subTasks = new ArrayList<>(2);
+                subTasks.add(new LoadTask(context, classNames, from, middle));
+                subTasks.add(new LoadTask(context, classNames, middle, to));
+                execute(subTasks);
+                return;
+            }
+            for (int i = from; i < to; ++i) {
+                context.acceptIfMatch(context.loadClass(classNames.get(i)));
+            }
+        }
+    }
+
+    /**
+     * 打开 jar 包，返回的 JarFile 由调用方关闭
+     */
+    private static JarFile openJarFile(URL url, String jarPath) throws IOException {
+        File file = new File(jarPath);
+        if (file.isFile()) {
+            return new JarFile(file);
+        }
+
+        URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            // 不使用缓存的 JarFile， 关闭时不会影响其他使用者
+            connection.setUseCaches(false);
+            return ((JarURLConnection) connection).getJarFile();
+        }
+        throw new IOException("无法将url转换成JarFile: " + url);
+    }
+
+    /**
+     * 解析 fat jar 中嵌套的 jar 包或者类目录的 URL，支持以下格式：
+     * <pre>
+     * jar:file:/app.jar!/BOOT-INF/lib/x.jar!/com/yygame
+     * jar:file:/app.jar!/BOOT-INF/classes!/com/yygame
+     * jar:nested:/app.jar/!BOOT-INF/lib/x.jar!/com/yygame
+     * </pre>
+     *
+     * @param url 包对应的 URL
+     * @return [外层 jar 包路径, 内部条目路径]，不是嵌套的 jar 包或者外层 jar 包不是本地文件时返回 null
+     */
+    private static String[] parseNestedJarPath(URL url) {
+        String path = url.getPath();
+        int end = path.lastIndexOf("!/");
+        if (end < 0) {
+            return null;
+        }
+        path = path.substring(0, end);
+
+        String outerPath;
+        String entryPath;
+        if (path.startsWith("file:")) {
+            int index = path.indexOf("!/");
+            if (index < 0) {
+                return null;
+            }
+            outerPath = path.substring(0, index);
+            entryPath = path.substring(index + 2);
+        } else if (path.startsWith("nested:")) {
+            int index = path.indexOf("/!");
+            if (index < 0) {
+                return null;
+            }
+            outerPath = "file:" + path.substring("nested:".length(), index);
+            entryPath = path.substring(index + 2);
+        } else {
+            return null;
+        }
+
+        File outerFile;
+        try {
+            outerFile = new File(new URI(outerPath));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!outerFile.isFile() || entryPath.isEmpty()) {
+            return null;
+        }
+        if (entryPath.endsWith("/")) {
+            entryPath = entryPath.substring(0, entryPath.length() - 1);
+        }
+        return new String[]{outerFile.getPath(), entryPath};
+    }
+
+    /**
+     * 将 file 协议的 URL 转换成路径，URL 中编码过的字符（例如空格）会被解码
+     */
+    static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return Paths.get(urlToAbsolutePath(url.getPath()));
+        }
+    }
+
+    /**
+     * 将 URL 对象的 path 转换成绝对路径
+     *
+     * @param urlPath URL对象getPath
+     * @return 返回绝对路径
+     */
+    static String urlToAbsolutePath(final String urlPath) {
+
+        String path = urlPath;
+
+        path = path.replaceFirst("(?i)file:[/\\\\]+", "");
+        path = path.replaceFirst("(?i)/([^:]+:)", "$1");
+        path = path.replaceFirst("(?i)jar:[/\\\\]*", "");
+        path = path.replaceFirst("(?i)![^\\\\!]+$", "");
+
+        if (!path.contains(":") && !path.startsWith("/")) {
+            path = "/" + path;
+        }
+
+        return path;
+
+    }
+}
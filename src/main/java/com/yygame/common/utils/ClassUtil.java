@@ -4,16 +4,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.lang.annotation.Annotation;
-import java.net.JarURLConnection;
-import java.net.URL;
+import java.lang.annotation.Inherited;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 /**
  * Class 操作工具类
@@ -35,6 +31,34 @@ public abstract class ClassUtil {
         boolean accept(Class<?> clazz);
     }
 
+    /**
+     * 类扫描回调，参考 {@link ClassScanner#scan(ClassVisitor, String...)}
+     */
+    public interface ClassVisitor {
+
+        /**
+         * 发现一个满足条件的类
+         *
+         * @param clazz 类对象
+         * @return 返回 false 停止扫描
+         */
+        boolean visit(Class<?> clazz);
+    }
+
+    /**
+     * 类元数据接受条件，在加载类之前根据 class 文件判断，参考 {@link ClassMetadataReader}
+     */
+    public interface ClassMetadataAccept {
+
+        /**
+         * 是否需要加载该类
+         *
+         * @param metadata 类元数据
+         * @return 返回是否接受
+         */
+        boolean accept(ClassMetadata metadata);
+    }
+
     /**
      * 是否包含给定注解中的任意一个
      *
@@ -105,6 +129,23 @@ public abstract class ClassUtil {
                     return null != clazz && containsAnyAnnotations(clazz, annotations);
                 }
             };
+
+            ClassMetadataAccept metadataAccepter = new ClassMetadataAccept() {
+                @Override
+                public boolean accept(ClassMetadata metadata) {
+                    for (Class<? extends Annotation> annotation : annotations) {
+                        if (null != annotation && metadata.hasAnnotation(annotation.getName(), annotation.isAnnotationPresent(Inherited.class))) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+            Set<Class<?>> classSet = scanFromIndex(true, basePackages, metadataAccepter, accepter, annotations);
+            if (null != classSet) {
+                return classSet;
+            }
+            return scan(true, basePackages, metadataAccepter, accepter);
         }
 
         return scan(true, basePackages, accepter);
@@ -142,11 +183,127 @@ public abstract class ClassUtil {
                     return null != clazz && superClass.isAssignableFrom(clazz);
                 }
             };
+
+            ClassMetadataAccept metadataAccepter = new ClassMetadataAccept() {
+                @Override
+                public boolean accept(ClassMetadata metadata) {
+                    return metadata.isAssignableTo(superClass.getName());
+                }
+            };
+            Set<Class<?>> classSet = scanFromIndex(scanSubPackage, basePackages, metadataAccepter, accepter, superClass);
+            if (null != classSet) {
+                return classSet;
+            }
+            return scan(scanSubPackage, basePackages, metadataAccepter, accepter);
         }
 
         return scan(scanSubPackage, basePackages, accepter);
     }
 
+    /**
+     * 惰性搜索给定包路径下所有继承了 superClass 的类，适合只需要部分结果的场景，例如查找第一个实现类
+     *
+     * @param superClass   父类
+     * @param basePackages 包列表
+     * @return 返回惰性的流，参考 {@link ClassScanner#stream(String...)}
+     */
+    public static Stream<Class<?>> stream(final Class<?> superClass, String... basePackages) {
+        ClassScanner scanner = new ClassScanner();
+        if (null != superClass) {
+            scanner.setMetadataAccepter(new ClassMetadataAccept() {
+                @Override
+                public boolean accept(ClassMetadata metadata) {
+                    return metadata.isAssignableTo(superClass.getName());
+                }
+            }).setAccepter(new ClassAccept() {
+                @Override
+                public boolean accept(Class<?> clazz) {
+                    return null != clazz && superClass.isAssignableFrom(clazz);
+                }
+            });
+        }
+        return scanner.stream(basePackages);
+    }
+
+    /**
+     * 从编译期生成的类索引中搜索类，参考 {@link ClassIndex}； 没有索引文件的类路径根仍然按 metadataAccepter 和 accepter 扫描
+     *
+     * @param scanSubPackage   是否包含子包
+     * @param basePackages     包列表
+     * @param metadataAccepter 扫描没有索引的类路径根时使用的元数据接受条件
+     * @param accepter         类接受条件
+     * @param stereotypes      索引类型，注解或者父类，必须全部被 {@link Indexed} 标记才会使用索引
+     * @return 无法使用索引时返回 null， 需要扫描类路径
+     */
+    private static Set<Class<?>> scanFromIndex(boolean scanSubPackage, String[] basePackages, ClassMetadataAccept metadataAccepter,
+                                               ClassAccept accepter, Class<?>... stereotypes) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        ClassIndex classIndex = ClassIndex.load(classLoader);
+        if (null == classIndex) {
+            return null;
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (Class<?> stereotype : stereotypes) {
+            if (null == stereotype) {
+                continue;
+            }
+            if (!ClassIndex.isIndexed(stereotype)) {
+                return null;
+            }
+            candidates.addAll(classIndex.getCandidates(stereotype.getName()));
+            if (!stereotype.isAnnotation()) {
+                // 父类本身也满足条件
+                candidates.add(stereotype.getName());
+            }
+        }
+
+        Set<String> packages = extractPackages(basePackages);
+        Set<Class<?>> classSet = new ClassScanner()
+                .setClassLoader(classLoader)
+                .setScanSubPackage(scanSubPackage)
+                .setMetadataAccepter(metadataAccepter)
+                .setAccepter(accepter)
+                .setExcludedRoots(classIndex.getRoots())
+                .scan(basePackages);
+        for (String className : candidates) {
+            if (!isInPackages(className, packages, scanSubPackage)) {
+                continue;
+            }
+            try {
+                Class<?> clazz = classLoader.loadClass(className);
+                if (null == accepter || accepter.accept(clazz)) {
+                    classSet.add(clazz);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.warn("加载索引中的类[" + className + "]失败: " + e.getMessage());
+            }
+        }
+        return classSet;
+    }
+
+    /**
+     * 判断类是否在给定的包中
+     *
+     * @param className      类名
+     * @param packages       包列表
+     * @param scanSubPackage 是否包含子包
+     * @return 返回是否在包中
+     */
+    private static boolean isInPackages(String className, Set<String> packages, boolean scanSubPackage) {
+        int index = className.lastIndexOf('.');
+        String packageName = index < 0 ? "" : className.substring(0, index);
+        for (String basePackage : packages) {
+            if (packageName.equals(basePackage)) {
+                return true;
+            }
+            if (scanSubPackage && packageName.startsWith(basePackage) && packageName.charAt(basePackage.length()) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 检索指定包下面的满足 accepter 的所有类
      *
@@ -156,21 +313,42 @@ public abstract class ClassUtil {
      * @return 始终返回非null
      */
     public static Set<Class<?>> scan(boolean scanSubPackage, String[] basePackages, ClassAccept accepter) {
-        // 提取包列表
-        Set<String> allPackages = extractPackages(basePackages);
+        return scan(scanSubPackage, basePackages, accepter, 1);
+    }
 
-        if (allPackages == null || allPackages.isEmpty()) {
-            return new HashSet<>();
-        }
-        Set<Class<?>> classSet = new HashSet<>();
+    /**
+     * 检索指定包下面的满足 accepter 的所有类
+     *
+     * @param scanSubPackage 是否包含子包
+     * @param basePackages   包列表
+     * @param accepter       类接受条件
+     * @param parallelism    并行度，大于 1 时使用 ForkJoinPool 并行扫描，参考 {@link ClassScanner}
+     * @return 始终返回非null
+     */
+    public static Set<Class<?>> scan(boolean scanSubPackage, String[] basePackages, ClassAccept accepter, int parallelism) {
+        return new ClassScanner()
+                .setScanSubPackage(scanSubPackage)
+                .setAccepter(accepter)
+                .setParallelism(parallelism)
+                .scan(basePackages);
+    }
 
-        for (String packageName : basePackages) {
-            Set<Class<?>> subClassSet = scanBySinglePackage(accepter, scanSubPackage, packageName);
-            if (null != subClassSet && !subClassSet.isEmpty()) {
-                classSet.addAll(subClassSet);
-            }
-        }
-        return classSet;
+    /**
+     * 检索指定包下面的满足条件的所有类，先读取 class 文件判断 metadataAccepter， 满足条件的类才会被加载，
+     * 避免执行无关类的静态初始化块
+     *
+     * @param scanSubPackage   是否包含子包
+     * @param basePackages     包列表
+     * @param metadataAccepter 类元数据接受条件，加载类之前判断
+     * @param accepter         类接受条件，加载类之后判断
+     * @return 始终返回非null
+     */
+    public static Set<Class<?>> scan(boolean scanSubPackage, String[] basePackages, ClassMetadataAccept metadataAccepter, ClassAccept accepter) {
+        return new ClassScanner()
+                .setScanSubPackage(scanSubPackage)
+                .setMetadataAccepter(metadataAccepter)
+                .setAccepter(accepter)
+                .scan(basePackages);
     }
 
     /**
@@ -256,259 +434,4 @@ public abstract class ClassUtil {
         return true;
     }
 
-    /**
-     * 从单个包名中搜索类
-     *
-     * @param accepter       类接收器
-     * @param packageName    包名
-     * @param scanSubPackage 是否遍历子包
-     * @return 始终返回非 null 集合
-     */
-    private static Set<Class<?>> scanBySinglePackage(ClassAccept accepter, boolean scanSubPackage, String packageName) {
-
-        Set<Class<?>> classSet = new HashSet<>();
-
-        if (StringUtils.isBlank(packageName)) {
-            return classSet;
-        }
-
-        try {
-            String packagePath = packageName.replace(".", "/");
-            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-            Enumeration<URL> urls = classLoader.getResources(packagePath);
-
-            while (urls.hasMoreElements()) {
-                URL url = urls.nextElement();
-                if (null == url) {
-                    continue;
-                }
-
-                String protocol = url.getProtocol();
-
-                if (protocol.equalsIgnoreCase("file")) {
-
-                    Set<Class<?>> subClassSet = scanFromUrlPath(classLoader, url.getPath(), packageName, accepter, scanSubPackage);
-                    if (null != subClassSet && !subClassSet.isEmpty()) {
-                        classSet.addAll(subClassSet);
-                    }
-                    continue;
-                }
-
-                if (protocol.equalsIgnoreCase("jar")) {
-                    Set<Class<?>> subClassSet = scanFromJarPath(classLoader, url, packageName, accepter, scanSubPackage);
-                    if (null != subClassSet && !subClassSet.isEmpty()) {
-                        classSet.addAll(subClassSet);
-                    }
-                }
-            }
-
-
-        } catch (Exception e) {
-            throw new RuntimeException("解析[" + packageName + "]下的类错误！", e);
-        }
-        return classSet;
-    }
-
-    /**
-     * 从 Jar 包进行搜索
-     *
-     * @param classLoader    类加载器
-     * @param url            url
-     * @param basePackage    包名
-     * @param accepter       类接受器
-     * @param scanSubPackage 是否扫描子包
-     * @return 始终返回非 null
-     */
-    private static Set<Class<?>> scanFromJarPath(ClassLoader classLoader, URL url, String basePackage, ClassAccept accepter, boolean scanSubPackage) {
-        Set<Class<?>> classSet = new HashSet<>();
-        try {
-
-            JarFile jarFile = getJarFileFromUrl(url);
-            Enumeration<JarEntry> entries = jarFile.entries();
-
-            classLoader = classLoader == null ? Thread.currentThread().getContextClassLoader() : classLoader;
-
-            final String regex = "^(.+?)\\.([^\\.]+\\.class)$";
-
-            while (entries.hasMoreElements()) {
-                JarEntry jarEntry = entries.nextElement();
-                String entryName = jarEntry.getName();
-
-                if (!entryName.endsWith(".class")) {
-                    continue;
-                }
-
-                String classPath = entryName.replace('/', '.');
-
-                if (!classPath.startsWith(basePackage)) {
-                    continue;
-                }
-
-                String packageName = classPath.replaceAll(regex, "$1");
-                boolean isSubPackage = !packageName.equals(basePackage);
-
-                if (scanSubPackage || !isSubPackage) {
-                    try {
-                        classPath = classPath.replaceFirst("(?i)\\.class$", "");
-                        Class<?> clazz = classLoader.loadClass(classPath);
-                        boolean isAccept = null == accepter || accepter.accept(clazz);
-                        if (isAccept) {
-                            classSet.add(clazz);
-                        }
-                    } catch (ClassNotFoundException ignored) {
-                    }
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("解析[" + url + "]下的类错误！", e);
-        }
-
-        return classSet;
-    }
-
-    private static JarFile getJarFileFromUrl(URL url) {
-
-        try {
-            String urlJarPath = urlToAbsolutePath(url.getPath());
-            return new JarFile(new File(urlJarPath));
-        } catch (Exception e) {
-
-            try {
-                JarURLConnection connection = (JarURLConnection) url.openConnection();
-                return connection.getJarFile();
-            } catch (Exception e1) {
-                throw new RuntimeException("无法将url转换成JarFile: " + e1.getMessage());
-            }
-        }
-    }
-
-    /**
-     * 将 URL 对象的 path 转换成绝对路径
-     *
-     * @param urlPath URL对象getPath
-     * @return 返回绝对路径
-     */
-    private static String urlToAbsolutePath(final String urlPath) {
-
-        String path = urlPath;
-
-        path = path.replaceFirst("(?i)file:[/\\\\]+", "");
-        path = path.replaceFirst("(?i)/([^:]+:)", "$1");
-        path = path.replaceFirst("(?i)jar:[/\\\\]*", "");
-        path = path.replaceFirst("(?i)![^\\\\!]+$", "");
-
-        if (!path.contains(":") && !path.startsWith("/")) {
-            path = "/" + path;
-        }
-
-        return path;
-
-    }
-
-    /**
-     * 从 文件路径下进行类搜索
-     *
-     * @param classLoader    类加载器
-     * @param urlPath        文件路径
-     * @param basePackage    基础包名
-     * @param accepter       是否接受
-     * @param scanSubPackage 是否搜索子包
-     * @return 返回非 null 集合
-     */
-    private static Set<Class<?>> scanFromUrlPath(ClassLoader classLoader, String urlPath, String basePackage, ClassAccept accepter, boolean scanSubPackage) {
-
-        String filePath = urlToAbsolutePath(urlPath);
-
-        File file = new File(filePath);
-
-        return scanFromFile(classLoader, file, basePackage, accepter, scanSubPackage);
-
-    }
-
-
-    /**
-     * 从文件中搜索class
-     *
-     * @param classLoader    类加载器
-     * @param file           文件
-     * @param basePackage    基础包名
-     * @param accepter       是否接受指定的类
-     * @param scanSubPackage 是否搜索子包
-     * @return 始终返回非 null
-     */
-    private static Set<Class<?>> scanFromFile(ClassLoader classLoader, File file, String basePackage, ClassAccept accepter, boolean scanSubPackage) {
-
-        Set<Class<?>> classSet = new HashSet<>();
-
-        if (null == file) {
-            return classSet;
-        }
-
-        Class<?> clazz = convertFileToClass(classLoader, file, basePackage);
-        boolean isAccept = clazz != null && (null == accepter || accepter.accept(clazz));
-        if (isAccept) {
-            classSet.add(clazz);
-            return classSet;
-        }
-
-        // 如果是目录才会继续处理
-        if (file.isDirectory()) {
-            File[] childFiles = file.listFiles();
-            if (null == childFiles || childFiles.length < 1) {
-                return classSet;
-            }
-
-            for (File childFile : childFiles) {
-                Set<Class<?>> subClassSet = scanFromFile(classLoader, childFile, basePackage, accepter, scanSubPackage);
-                if (subClassSet != null && !subClassSet.isEmpty()) {
-                    classSet.addAll(subClassSet);
-                }
-            }
-        }
-        return classSet;
-    }
-
-    private static boolean isClassFile(File file) {
-        return null != file && file.isFile() && file.getPath().endsWith(".class");
-    }
-
-    /**
-     * 根据文件解析Class
-     *
-     * @param classLoader 类加载器
-     * @param file        文件对象
-     * @param basePackage 基础包名
-     * @return 如果不存在则返回null，不会抛出异常
-     */
-    private static Class<?> convertFileToClass(ClassLoader classLoader, File file, String basePackage) {
-
-        if (!isClassFile(file)) {
-            return null;
-        }
-
-        String filePath = file.getPath();
-
-        filePath = PathUtil.normalizePath(filePath);
-        String basePackagePath = StringUtils.isBlank(basePackage) ? "" : basePackage.replace('.', '/') + "/";
-
-        int index = filePath.lastIndexOf("/classes/" + basePackagePath);
-        if (index < 1) {
-            return null;
-        }
-
-        // 截取classes后面的
-        String classPath = filePath.substring(index);
-        classPath = classPath.replaceFirst("/classes/", "");
-        classPath = classPath.replace('/', '.');
-        classPath = classPath.replaceAll("\\.class$", "");
-
-        classLoader = classLoader == null ? Thread.currentThread().getContextClassLoader() : classLoader;
-
-        try {
-            return classLoader.loadClass(classPath);
-        } catch (ClassNotFoundException e) {
-            return null;
-        }
-    }
-
 }
@@ -2,7 +2,6 @@ package com.yygame.common.utils;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.lang.reflect.Method;
 import java.util.*;
 
 /**
@@ -244,38 +243,7 @@ public abstract class CommonUtil {
             return configMap;
         }
 
-        Set<String> fieldNames = configMap.keySet();
-
-        Method[] allMethods = clazz.getMethods();
-
-        Map<String, Method> getMethodMap = new HashMap<>();
-        Map<String, Method> setMethodMap = new HashMap<>();
-
-        for (Method method : allMethods) {
-            String methodName = method.getName();
-            String fieldName = firstLetterToLowerCase(methodName.replaceFirst("is|get|set", ""));
-            if (methodName.startsWith("is") || methodName.startsWith("get")) {
-                getMethodMap.put(fieldName, method);
-            } else if (methodName.startsWith("set")) {
-                setMethodMap.put(fieldName, method);
-            }
-        }
-
-        Set<String> needRemoveFieldNames = new HashSet<>();
-
-        for (String fieldName : fieldNames) {
-            if (!getMethodMap.containsKey(fieldName) || !setMethodMap.containsKey(fieldName)) {
-                needRemoveFieldNames.add(fieldName);
-            }
-        }
-
-        if (!needRemoveFieldNames.isEmpty()) {
-            for (String needRemoveFieldName : needRemoveFieldNames) {
-                configMap.remove(needRemoveFieldName);
-            }
-        }
-
-        return configMap;
+        return BeanMapper.of(clazz).filterUnRecordedField(configMap);
     }
 
     /**
@@ -533,7 +501,9 @@ public abstract class CommonUtil {
     public static final String WILDCARD_START = "*";
 
     /**
-     * 检查指定的字符串是否满足给定的通配符
+     * 检查指定的字符串是否满足给定的通配符， * 匹配任意多个字符， ? 匹配任意一个字符，其他字符按字面匹配
+     * <p>
+     * 通配符编译后会被缓存，参考 {@link Glob}
      *
      * @param string          字符串
      * @param wildcardPattern 包含 * 的通配符
@@ -543,17 +513,10 @@ public abstract class CommonUtil {
         if (StringUtils.isAnyBlank(string, wildcardPattern)) {
             return false;
         }
-        if (!wildcardPattern.contains(WILDCARD_START)) {
-            return string.equals(wildcardPattern);
-        }
-
-        if (WILDCARD_START.endsWith(wildcardPattern)) {
+        if (WILDCARD_START.equals(wildcardPattern)) {
             return true;
         }
-
-        String regex = "^" + wildcardPattern.replaceAll("\\*", "[^\\*]*") + "$";
-
-        return string.matches(regex);
+        return Glob.compile(wildcardPattern).matches(string);
     }
 
 }
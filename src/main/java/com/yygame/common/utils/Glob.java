@@ -0,0 +1,231 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预编译的通配符，* 匹配任意多个字符（包括 0 个），? 匹配任意一个字符，其他字符都按字面匹配，不使用正则表达式
+ * <p>
+ * 不包含 ? 时编译时按 * 切分成片段，匹配时第一个片段必须在开头、最后一个片段必须在结尾，
+ * 中间的片段用 {@link String#indexOf(String, int)} 从左到右依次查找最早出现的位置，找到即可，不需要回溯；
+ * 包含 ? 时使用双指针匹配，遇到不匹配的字符时回到最近一个 * 的下一个位置重试，不创建对象。
+ * 两种方式最坏情况下都是 O(字符串长度 * 通配符长度)，通常接近线性
+ * <pre>
+ * Glob glob = Glob.compile("/static/*.js");
+ * glob.matches("/static/app.js");      // true
+ * Glob.matchesAny(uri, excludePatterns);
+ * </pre>
+ * 创建后不可修改，可以在多个线程中共享；{@link #compile(String)} 会缓存编译后的通配符，读取缓存不加锁
+ *
+ * @author yzy
+ */
+public final class Glob {
+
+    private static final char ANY_CHARS = '*';
+
+    private static final char ANY_CHAR = '?';
+
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * 超出容量时整体清空，通配符通常是固定的几个，清空后很快会重新填满
+     */
+    private static final ConcurrentMap<String, Glob> CACHE = new ConcurrentHashMap<>();
+
+    private final String pattern;
+
+    /**
+     * 按 * 切分后的片段，不包含 * 时为 null
+     */
+    private final String[] parts;
+
+    private final boolean hasAnyChar;
+
+    /**
+     * 能匹配的最短长度，即除了 * 之外的字符个数
+     */
+    private final int minLength;
+
+    private Glob(String pattern) {
+        this.pattern = pattern;
+        this.parts = pattern.indexOf(ANY_CHARS) < 0 ? null : StringUtils.splitPreserveAllTokens(pattern, ANY_CHARS);
+        this.hasAnyChar = pattern.indexOf(ANY_CHAR) >= 0;
+        this.minLength = pattern.length() - StringUtils.countMatches(pattern, ANY_CHARS);
+    }
+
+    /**
+     * 编译通配符，编译后的通配符会被缓存
+     *
+     * @param pattern 通配符
+     * @return 返回编译后的通配符
+     */
+    public static Glob compile(String pattern) {
+        AssertUtil.assertNotNull(pattern, "通配符不能为空");
+        Glob glob = CACHE.get(pattern);
+        if (null == glob) {
+            glob = new Glob(pattern);
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.putIfAbsent(pattern, glob);
+        }
+        return glob;
+    }
+
+    /**
+     * 字符串是否满足任意一个通配符
+     *
+     * @param string   字符串
+     * @param patterns 通配符，null 会被忽略
+     * @return 字符串为 null 或者没有通配符时返回 false
+     */
+    public static boolean matchesAny(String string, Collection<String> patterns) {
+        if (null == string || null == patterns) {
+            return false;
+        }
+        for (String pattern : patterns) {
+            if (null != pattern && compile(pattern).matches(string)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查找字符串满足的所有通配符
+     *
+     * @param string   字符串
+     * @param patterns 通配符，null 会被忽略
+     * @return 按 patterns 的顺序返回匹配的通配符，没有时返回空列表
+     */
+    public static List<String> getMatched(String string, Collection<String> patterns) {
+        if (null == string || null == patterns) {
+            return Collections.emptyList();
+        }
+        List<String> matched = null;
+        for (String pattern : patterns) {
+            if (null != pattern && compile(pattern).matches(string)) {
+                if (null == matched) {
+                    matched = new ArrayList<>(2);
+                }
+                matched.add(pattern);
+            }
+        }
+        return null == matched ? Collections.<String>emptyList() : matched;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 是否匹配
+     *
+     * @param string 字符串
+     * @return 字符串为 null 时返回 false
+     */
+    public boolean matches(String string) {
+        if (null == string || string.length() < minLength) {
+            return false;
+        }
+        if (null == parts) {
+            return string.length() == pattern.length() && regionMatches(string, 0, pattern);
+        }
+        if (hasAnyChar) {
+            return matchesBacktracking(string);
+        }
+        String first = parts[0];
+        String last = parts[parts.length - 1];
+        int end = string.length() - last.length();
+        if (!regionMatches(string, 0, first) || !regionMatches(string, end, last)) {
+            return false;
+        }
+        int position = first.length();
+        for (int i = 1; i < parts.length - 1; ++i) {
+            String part = parts[i];
+            int index = indexOf(string, part, position, end);
+            if (index < 0) {
+                return false;
+            }
+            position = index + part.length();
+        }
+        return true;
+    }
+
+    /**
+     * 双指针匹配：记录最近一个 * 的位置以及它匹配到的位置，遇到不匹配时让这个 * 多匹配一个字符再重试
+     */
+    private boolean matchesBacktracking(String string) {
+        int s = 0;
+        int p = 0;
+        int star = -1;
+        int starMatch = 0;
+        int length = string.length();
+        int patternLength = pattern.length();
+        while (s < length) {
+            char c = p < patternLength ? pattern.charAt(p) : 0;
+            if (p < patternLength && c == ANY_CHARS) {
+                star = p++;
+                starMatch = s;
+            } else if (p < patternLength && (c == ANY_CHAR || c == string.charAt(s))) {
+                ++s;
+                ++p;
+            } else if (star >= 0) {
+                p = star + 1;
+                s = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        while (p < patternLength && pattern.charAt(p) == ANY_CHARS) {
+            ++p;
+        }
+        return p == patternLength;
+    }
+
+    /**
+     * string 从 offset 开始是否与 part 匹配，part 中的 ? 匹配任意一个字符
+     */
+    private boolean regionMatches(String string, int offset, String part) {
+        if (!hasAnyChar) {
+            return string.startsWith(part, offset);
+        }
+        int length = part.length();
+        for (int i = 0; i < length; ++i) {
+            char c = part.charAt(i);
+            if (c != ANY_CHAR && c != string.charAt(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在 string 的 [from, end) 中查找 part 最早出现的位置
+     */
+    private static int indexOf(String string, String part, int from, int end) {
+        int index = string.indexOf(part, from);
+        return index > end - part.length() ? -1 : index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Glob && pattern.equals(((Glob) o).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return pattern.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,24 @@
+package com.yygame.common.utils;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记需要在编译期建立索引的类型
+ * <p>
+ * 1. 标记在注解上： 所有使用该注解的类都会被记录到索引中
+ * 2. 标记在类或接口上： 所有的子类/实现类都会被记录到索引中
+ * <p>
+ * 索引由 {@link ClassIndexProcessor} 在编译期生成，保存在 {@link ClassIndex#INDEX_LOCATION}，
+ * {@link ClassUtil#scan} 会优先使用索引，避免在启动时遍历类路径
+ *
+ * @author yzy
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Indexed {
+}
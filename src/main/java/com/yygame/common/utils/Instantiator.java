@@ -0,0 +1,102 @@
+package com.yygame.common.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * 实例化器，使用默认构造函数创建实例
+ * <p>
+ * 构造函数只查找一次，之后通过 MethodHandle 调用，每个类的实例化器会被缓存
+ *
+ * @param <T> 实例类型
+ * @author yzy
+ */
+public final class Instantiator<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * 类 --> 实例化器，使用 ClassValue 保存，不会阻止类加载器被回收
+     */
+    private static final ClassValue<Instantiator<?>> INSTANTIATORS = new ClassValue<Instantiator<?>>() {
+        @Override
+        protected Instantiator<?> computeValue(Class<?> type) {
+            return new Instantiator<>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    /**
+     * ()Object
+     */
+    private final MethodHandle constructor;
+
+    private Instantiator(Class<T> type) {
+        int mod = type.getModifiers();
+        if (Modifier.isAbstract(mod) || Modifier.isInterface(mod)) {
+            throw new RuntimeException("指定的类[" + type.getName() + "] 是抽象类或接口，无法实例化！");
+        }
+
+        Constructor<T> defaultConstructor;
+        try {
+            defaultConstructor = type.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("指定的类[" + type.getName() + "] 没有一个默认的无参构造函数！", e);
+        }
+
+        if (!defaultConstructor.isAccessible()) {
+            defaultConstructor.setAccessible(true);
+        }
+
+        try {
+            this.constructor = LOOKUP.unreflectConstructor(defaultConstructor).asType(CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("无法访问类[" + type.getName() + "]的默认构造函数: " + e.getMessage(), e);
+        }
+        this.type = type;
+    }
+
+    /**
+     * 获取指定类的实例化器，结果会被缓存
+     *
+     * @param type 要实例化的类，必须是 public 的，并且有 public 的无参构造函数
+     * @param <T>  实例类型
+     * @return 返回实例化器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Instantiator<T> of(Class<T> type) {
+        AssertUtil.assertNotNull(type, "要实例化的类不能为空");
+        return (Instantiator<T>) INSTANTIATORS.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 使用默认构造函数创建实例
+     *
+     * @return 返回新的实例
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        try {
+            return (T) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("实例化类[" + type.getName() + "]失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Instantiator[" + type.getName() + "]";
+    }
+}
@@ -0,0 +1,658 @@
+package com.yygame.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 实时类索引，用于开发环境以及插件热加载等需要反复扫描的场景
+ * <p>
+ * 创建时扫描一次给定的包，保存所有类的元数据； 之后目录通过 WatchService 监听类文件的增加、修改和删除，
+ * jar 包通过定时检查文件大小和修改时间发现变化并重新读取，索引只做增量更新；
+ * 查询直接在内存中完成，{@link #scanSubTypes} 和 {@link #scanAnnotated} 的结果在类发生变化之前会被缓存
+ * <pre>
+ * LiveClassIndex index = new LiveClassIndex(classLoader, true, "com.yygame.plugin").start();
+ * Set&lt;Class&lt;?&gt;&gt; plugins = index.scanSubTypes(Plugin.class);
+ * </pre>
+ * 只支持 file 协议的目录以及本地 jar 包，fat jar 中嵌套的 jar 包不会被索引
+ *
+ * @author yzy
+ */
+public class LiveClassIndex implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveClassIndex.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * 默认的检查间隔，毫秒
+     */
+    public static final long DEFAULT_POLL_INTERVAL = 1000L;
+
+    private final ClassLoader classLoader;
+
+    private final boolean scanSubPackage;
+
+    private final ClassMetadataReader metadataReader;
+
+    /**
+     * 类名 --> 元数据
+     */
+    private final ConcurrentMap<String, ClassMetadata> classes = new ConcurrentHashMap<>();
+
+    private final List<DirectoryRoot> directoryRoots = new ArrayList<>();
+
+    private final List<JarRoot> jarRoots = new ArrayList<>();
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, WatchedDirectory> watchedDirectories = new HashMap<>();
+
+    /**
+     * 父类 --> 查询结果
+     */
+    private final ConcurrentMap<Class<?>, Set<Class<?>>> subTypeCache = new ConcurrentHashMap<>();
+
+    /**
+     * 注解列表 --> 查询结果
+     */
+    private final ConcurrentMap<List<Class<? extends Annotation>>, Set<Class<?>>> annotatedCache = new ConcurrentHashMap<>();
+
+    /**
+     * 索引的版本，每次发生变化都会增加
+     */
+    private volatile long version;
+
+    private volatile long pollInterval = DEFAULT_POLL_INTERVAL;
+
+    private volatile Thread watchThread;
+
+    private volatile boolean closed;
+
+    /**
+     * 目录类路径根
+     */
+    private static final class DirectoryRoot {
+
+        private final Path dir;
+
+        private final String basePackage;
+
+        private final Set<String> classNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private DirectoryRoot(Path dir, String basePackage) {
+            this.dir = dir;
+            this.basePackage = basePackage;
+        }
+    }
+
+    /**
+     * jar 包类路径根
+     */
+    private static final class JarRoot {
+
+        private final File file;
+
+        private final ClassScanner.PackageTrie packageTrie;
+
+        private Set<String> classNames = Collections.emptySet();
+
+        private long size = -1;
+
+        private long lastModified = -1;
+
+        private JarRoot(File file, Set<String> packages) {
+            this.file = file;
+            this.packageTrie = new ClassScanner.PackageTrie(packages);
+        }
+    }
+
+    private static final class WatchedDirectory {
+
+        private final DirectoryRoot root;
+
+        private final Path dir;
+
+        private WatchedDirectory(DirectoryRoot root, Path dir) {
+            this.root = root;
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * 创建索引并完成初始扫描，需要调用 {@link #start()} 才会在后台监听变化， 也可以手动调用 {@link #refresh()}
+     *
+     * @param classLoader    类加载器，为 null 则使用当前线程的类加载器
+     * @param scanSubPackage 是否包含子包
+     * @param basePackages   需要索引的包
+     */
+    public LiveClassIndex(ClassLoader classLoader, boolean scanSubPackage, String... basePackages) {
+        this.classLoader = null == classLoader ? Thread.currentThread().getContextClassLoader() : classLoader;
+        this.scanSubPackage = scanSubPackage;
+        this.metadataReader = new ClassMetadataReader(this.classLoader);
+
+        resolveRoots(ClassUtil.extractPackages(basePackages));
+
+        try {
+            this.watchService = directoryRoots.isEmpty() ? null : FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new RuntimeException("创建目录监听失败！", e);
+        }
+        try {
+            for (DirectoryRoot root : directoryRoots) {
+                register(root, root.dir);
+                scanDirectory(root, root.dir);
+            }
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("监听类目录失败！", e);
+        }
+        for (JarRoot jar : jarRoots) {
+            scanJar(jar);
+        }
+    }
+
+    /**
+     * 设置后台检查的间隔， WatchService 的等待时间以及 jar 包的检查间隔
+     */
+    public LiveClassIndex setPollInterval(long pollInterval, TimeUnit unit) {
+        this.pollInterval = Math.max(1L, unit.toMillis(pollInterval));
+        return this;
+    }
+
+    /**
+     * 启动后台守护线程监听变化，重复调用无效
+     */
+    public synchronized LiveClassIndex start() {
+        if (closed) {
+            throw new IllegalStateException("类索引已关闭");
+        }
+        if (null != watchThread) {
+            return this;
+        }
+        watchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "live-class-index");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return this;
+    }
+
+    private void watch() {
+        while (!closed) {
+            try {
+                WatchKey key;
+                if (null == watchService) {
+                    Thread.sleep(pollInterval);
+                    key = null;
+                } else {
+                    key = watchService.poll(pollInterval, TimeUnit.MILLISECONDS);
+                }
+                refresh(key);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("更新类索引失败: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 立即处理已经发生的目录事件并检查 jar 包，不等待后台线程
+     *
+     * @return 返回索引是否发生了变化
+     */
+    public boolean refresh() {
+        return refresh(null);
+    }
+
+    private synchronized boolean refresh(WatchKey firstKey) {
+        if (closed) {
+            return false;
+        }
+        boolean changed = false;
+        if (null != watchService) {
+            WatchKey key = firstKey;
+            if (null == key) {
+                key = watchService.poll();
+            }
+            while (null != key) {
+                changed |= processWatchKey(key);
+                key = watchService.poll();
+            }
+        }
+        for (JarRoot jar : jarRoots) {
+            if (jar.file.length() != jar.size || jar.file.lastModified() != jar.lastModified) {
+                changed |= scanJar(jar);
+            }
+        }
+        if (changed) {
+            onChanged();
+        }
+        return changed;
+    }
+
+    /**
+     * 停止监听，已经建立的索引仍然可以查询
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (null != watchThread) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        if (null != watchService) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("关闭目录监听失败: " + e.getMessage());
+            }
+        }
+        watchedDirectories.clear();
+    }
+
+    /**
+     * @return 索引的版本，每次发生变化都会增加，可用于判断缓存的查询结果是否过期
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 当前索引中的所有类名，只读的实时视图
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * @param className 类名
+     * @return 不在索引中时返回 null
+     */
+    public ClassMetadata getMetadata(String className) {
+        return classes.get(className);
+    }
+
+    /**
+     * 在索引中查找类，先根据元数据过滤，再加载类判断
+     *
+     * @param metadataAccepter 元数据条件，为 null 则不过滤
+     * @param accepter         类条件，为 null 则不过滤
+     * @return 始终返回非 null
+     */
+    public Set<Class<?>> scan(ClassUtil.ClassMetadataAccept metadataAccepter, ClassUtil.ClassAccept accepter) {
+        Set<Class<?>> classSet = new HashSet<>();
+        for (ClassMetadata metadata : classes.values()) {
+            if (null != metadataAccepter && !metadataAccepter.accept(metadata)) {
+                continue;
+            }
+            Class<?> clazz = loadClass(metadata.getClassName());
+            if (null != clazz && (null == accepter || accepter.accept(clazz))) {
+                classSet.add(clazz);
+            }
+        }
+        return classSet;
+    }
+
+    /**
+     * 查找继承了 superClass 的类（包括 superClass 本身），结果在索引变化之前会被缓存
+     *
+     * @param superClass 父类或者接口
+     * @return 返回只读的集合
+     */
+    public Set<Class<?>> scanSubTypes(final Class<?> superClass) {
+        if (null == superClass) {
+            throw new IllegalArgumentException("父类不能为空");
+        }
+        Set<Class<?>> classSet = subTypeCache.get(superClass);
+        if (null != classSet) {
+            return classSet;
+        }
+        long currentVersion = version;
+        classSet = Collections.unmodifiableSet(scan(new ClassUtil.ClassMetadataAccept() {
+            @Override
+            public boolean accept(ClassMetadata metadata) {
+                return metadata.isAssignableTo(superClass.getName());
+            }
+        }, new ClassUtil.ClassAccept() {
+            @Override
+            public boolean accept(Class<?> clazz) {
+                return superClass.isAssignableFrom(clazz);
+            }
+        }));
+        subTypeCache.put(superClass, classSet);
+        // 计算期间索引发生了变化，结果可能已经过期
+        if (currentVersion != version) {
+            subTypeCache.remove(superClass);
+        }
+        return classSet;
+    }
+
+    /**
+     * 查找包含任意一个给定注解的类，结果在索引变化之前会被缓存
+     *
+     * @param annotations 注解
+     * @return 返回只读的集合
+     */
+    @SafeVarargs
+    public final Set<Class<?>> scanAnnotated(Class<? extends Annotation>... annotations) {
+        // 复制一份作为缓存键，不再引用调用方的数组
+        final List<Class<? extends Annotation>> key = new ArrayList<>(annotations.length);
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (null != annotation) {
+                key.add(annotation);
+            }
+        }
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("注解不能为空");
+        }
+        Set<Class<?>> classSet = annotatedCache.get(key);
+        if (null != classSet) {
+            return classSet;
+        }
+        long currentVersion = version;
+        classSet = Collections.unmodifiableSet(scan(new ClassUtil.ClassMetadataAccept() {
+            @Override
+            public boolean accept(ClassMetadata metadata) {
+                for (Class<? extends Annotation> annotation : key) {
+                    if (metadata.hasAnnotation(annotation.getName(), annotation.isAnnotationPresent(Inherited.class))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }, new ClassUtil.ClassAccept() {
+            @Override
+            public boolean accept(Class<?> clazz) {
+                for (Class<? extends Annotation> annotation : key) {
+                    if (ClassUtil.containsAnnotation(clazz, annotation)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }));
+        annotatedCache.put(key, classSet);
+        if (currentVersion != version) {
+            annotatedCache.remove(key);
+        }
+        return classSet;
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // 类文件刚被删除或者依赖的类发生了不兼容的变化
+            return null;
+        }
+    }
+
+    private void onChanged() {
+        ++version;
+        subTypeCache.clear();
+        annotatedCache.clear();
+    }
+
+    /**
+     * 按类路径根分组，与 {@link ClassScanner} 一致：同一个 jar 包只读取一次， 被其他包目录包含的目录不重复监听
+     */
+    private void resolveRoots(Set<String> packages) {
+        Map<Path, String> dirPackages = new TreeMap<>();
+        Map<String, Set<String>> jarPackages = new LinkedHashMap<>();
+        for (String packageName : packages) {
+            try {
+                Enumeration<URL> urls = classLoader.getResources(packageName.replace(".", "/"));
+                while (urls.hasMoreElements()) {
+                    URL url = urls.nextElement();
+                    String protocol = url.getProtocol();
+                    if (protocol.equalsIgnoreCase("file")) {
+                        dirPackages.put(ClassScanner.toPath(url).toAbsolutePath(), packageName);
+                    } else if (protocol.equalsIgnoreCase("jar")) {
+                        String jarPath = ClassScanner.urlToAbsolutePath(url.getPath());
+                        if (!new File(jarPath).isFile()) {
+                            logger.warn("类索引不支持[" + url + "]，该路径下的类不会被索引");
+                            continue;
+                        }
+                        if (!jarPackages.containsKey(jarPath)) {
+                            jarPackages.put(jarPath, new TreeSet<String>());
+                        }
+                        jarPackages.get(jarPath).add(packageName);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("解析[" + packageName + "]下的类错误！", e);
+            }
+        }
+
+        for (Map.Entry<Path, String> entry : dirPackages.entrySet()) {
+            Path dir = entry.getKey();
+            boolean nested = false;
+            for (DirectoryRoot root : directoryRoots) {
+                if (scanSubPackage && dir.startsWith(root.dir)) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                directoryRoots.add(new DirectoryRoot(dir, entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : jarPackages.entrySet()) {
+            jarRoots.add(new JarRoot(new File(entry.getKey()), entry.getValue()));
+        }
+    }
+
+    /**
+     * 监听目录，扫描子包时同时监听所有子目录
+     */
+    private void register(final DirectoryRoot root, final Path dir) throws IOException {
+        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) throws IOException {
+                if (!scanSubPackage && !path.equals(root.dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirectories.put(key, new WatchedDirectory(root, path));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean scanDirectory(DirectoryRoot root, Path dir) throws IOException {
+        ClassScanner.ClassFileCollector collector = ClassScanner.ClassFileCollector.collect(dir, toPackageName(root, dir), scanSubPackage);
+        boolean changed = false;
+        for (Path classFile : collector.getClassFiles()) {
+            changed |= readClassFile(root, classFile);
+        }
+        return changed;
+    }
+
+    private boolean processWatchKey(WatchKey key) {
+        WatchedDirectory watched = watchedDirectories.get(key);
+        boolean changed = false;
+        if (null != watched) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                try {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // 丢失了事件，重新扫描整个目录
+                        changed |= removePackage(watched.root, null);
+                        changed |= scanDirectory(watched.root, watched.root.dir);
+                        continue;
+                    }
+                    changed |= processEvent(watched.root, event.kind(), watched.dir.resolve((Path) event.context()));
+                } catch (IOException e) {
+                    logger.warn("更新类索引失败: " + e.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            // 目录已被删除
+            watchedDirectories.remove(key);
+        }
+        return changed;
+    }
+
+    private boolean processEvent(DirectoryRoot root, WatchEvent.Kind<?> kind, Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            if (fileName.endsWith(CLASS_SUFFIX)) {
+                return removeClass(root.classNames, toClassName(root, path));
+            }
+            return removePackage(root, toPackageName(root, path));
+        }
+        if (Files.isDirectory(path)) {
+            if (!scanSubPackage || kind != StandardWatchEventKinds.ENTRY_CREATE) {
+                return false;
+            }
+            // 目录中已有的文件不会产生事件，需要主动扫描
+            register(root, path);
+            return scanDirectory(root, path);
+        }
+        return fileName.endsWith(CLASS_SUFFIX) && readClassFile(root, path);
+    }
+
+    private boolean readClassFile(DirectoryRoot root, Path classFile) {
+        try (InputStream inputStream = Files.newInputStream(classFile)) {
+            ClassMetadata metadata = metadataReader.reload(inputStream);
+            classes.put(metadata.getClassName(), metadata);
+            root.classNames.add(metadata.getClassName());
+            return true;
+        } catch (IOException e) {
+            // 文件已被删除或者还没有写完，写完后会再次收到事件
+            return false;
+        }
+    }
+
+    private boolean removeClass(Set<String> classNames, String className) {
+        metadataReader.evict(className);
+        return classNames.remove(className) && null != classes.remove(className);
+    }
+
+    /**
+     * 删除包以及子包中的类
+     *
+     * @param packageName 为 null 则删除目录中所有的类
+     */
+    private boolean removePackage(DirectoryRoot root, String packageName) {
+        boolean changed = false;
+        String prefix = null == packageName ? null : packageName + '.';
+        for (Iterator<String> iterator = root.classNames.iterator(); iterator.hasNext(); ) {
+            String className = iterator.next();
+            if (null == prefix || className.startsWith(prefix)) {
+                iterator.remove();
+                metadataReader.evict(className);
+                changed |= null != classes.remove(className);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 重新读取 jar 包，读取失败时保留原有的索引，下次检查时重试
+     */
+    private boolean scanJar(JarRoot jar) {
+        long size = jar.file.length();
+        long lastModified = jar.file.lastModified();
+        Map<String, ClassMetadata> jarClasses = new HashMap<>();
+        if (jar.file.isFile()) {
+            try (ZipFile zipFile = new ZipFile(jar.file)) {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if (entry.isDirectory() || !name.endsWith(CLASS_SUFFIX)
+                            || !jar.packageTrie.matches(name, 0, name.lastIndexOf('/'), '/', scanSubPackage)) {
+                        continue;
+                    }
+                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                        ClassMetadata metadata = metadataReader.reload(inputStream);
+                        jarClasses.put(metadata.getClassName(), metadata);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("读取 jar 包[" + jar.file + "]失败: " + e.getMessage());
+                return false;
+            }
+        }
+
+        boolean changed = false;
+        for (String className : jar.classNames) {
+            if (!jarClasses.containsKey(className)) {
+                metadataReader.evict(className);
+                changed |= null != classes.remove(className);
+            }
+        }
+        for (ClassMetadata metadata : jarClasses.values()) {
+            classes.put(metadata.getClassName(), metadata);
+            changed = true;
+        }
+        jar.classNames = jarClasses.keySet();
+        jar.size = size;
+        jar.lastModified = lastModified;
+        return changed;
+    }
+
+    private static String toClassName(DirectoryRoot root, Path classFile) {
+        String fileName = classFile.getFileName().toString();
+        return toPackageName(root, classFile.getParent()) + '.' + fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+    }
+
+    private static String toPackageName(DirectoryRoot root, Path dir) {
+        StringBuilder builder = new StringBuilder(root.basePackage);
+        for (Path name : root.dir.relativize(dir)) {
+            if (name.toString().length() > 0) {
+                builder.append('.').append(name);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,409 @@
+package com.yygame.common.utils;
+
+/**
+ * 解析后的 URL，一次遍历记录各部分在原字符串中的位置，不使用正则表达式
+ * <p>
+ * scheme://userInfo@host:port/path?query#fragment， 各部分只在调用 getXxx 时才会创建子字符串；
+ * 查询参数通过 {@link #queryIterator()} 遍历，只有获取参数名或参数值时才会创建字符串。
+ * 解析是宽松的，不会校验各部分的字符是否合法，返回的值都没有解码
+ *
+ * @author yzy
+ */
+public final class ParsedUrl {
+
+    private final String url;
+
+    /**
+     * scheme 结束位置，即 ':' 的位置，没有 scheme 时为 -1
+     */
+    private final int schemeEnd;
+
+    /**
+     * authority（// 之后）的起始位置，没有 authority 时为 -1
+     */
+    private final int authorityStart;
+
+    private final int hostStart;
+
+    private final int hostEnd;
+
+    private final int port;
+
+    private final int pathStart;
+
+    private final int pathEnd;
+
+    /**
+     * 查询参数的起始位置（'?' 之后），没有查询参数时为 -1
+     */
+    private final int queryStart;
+
+    private final int queryEnd;
+
+    /**
+     * 锚点的起始位置（'#' 之后），没有锚点时为 -1
+     */
+    private final int fragmentStart;
+
+    private ParsedUrl(String url) {
+        this.url = url;
+        int length = url.length();
+
+        this.schemeEnd = scanScheme(url);
+        int index = schemeEnd + 1;
+
+        if (index + 1 < length && url.charAt(index) == '/' && url.charAt(index + 1) == '/') {
+            this.authorityStart = index + 2;
+            int authorityEnd = authorityStart;
+            int atIndex = -1;
+            while (authorityEnd < length) {
+                char c = url.charAt(authorityEnd);
+                if (c == '/' || c == '?' || c == '#') {
+                    break;
+                }
+                if (c == '@') {
+                    atIndex = authorityEnd;
+                }
+                ++authorityEnd;
+            }
+            this.hostStart = atIndex < 0 ? authorityStart : atIndex + 1;
+            int hostIndex = hostStart;
+            if (hostIndex < authorityEnd && url.charAt(hostIndex) == '[') {
+                // IPv6 地址
+                while (hostIndex < authorityEnd && url.charAt(hostIndex) != ']') {
+                    ++hostIndex;
+                }
+                hostIndex = Math.min(hostIndex + 1, authorityEnd);
+            }
+            while (hostIndex < authorityEnd && url.charAt(hostIndex) != ':') {
+                ++hostIndex;
+            }
+            this.hostEnd = hostIndex;
+            this.port = hostIndex < authorityEnd ? parsePort(url, hostIndex + 1, authorityEnd) : -1;
+            index = authorityEnd;
+        } else {
+            this.authorityStart = -1;
+            this.hostStart = -1;
+            this.hostEnd = -1;
+            this.port = -1;
+        }
+
+        this.pathStart = index;
+        while (index < length && url.charAt(index) != '?' && url.charAt(index) != '#') {
+            ++index;
+        }
+        this.pathEnd = index;
+
+        if (index < length && url.charAt(index) == '?') {
+            this.queryStart = ++index;
+            while (index < length && url.charAt(index) != '#') {
+                ++index;
+            }
+            this.queryEnd = index;
+        } else {
+            this.queryStart = -1;
+            this.queryEnd = -1;
+        }
+
+        this.fragmentStart = index < length ? index + 1 : -1;
+    }
+
+    /**
+     * 解析 URL
+     *
+     * @param url 要解析的 url， 可以是相对路径
+     * @return 返回解析结果
+     */
+    public static ParsedUrl parse(String url) {
+        AssertUtil.assertNotNull(url, "要解析的URL不能为空");
+        return new ParsedUrl(url);
+    }
+
+    /**
+     * @return 返回 ':' 的位置，不是合法的 scheme 时返回 -1
+     */
+    private static int scanScheme(String url) {
+        int length = url.length();
+        if (length == 0 || !isAlpha(url.charAt(0))) {
+            return -1;
+        }
+        for (int i = 1; i < length; ++i) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                return i;
+            }
+            if (!isAlpha(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * @return 端口为空或者不是数字时返回 -1
+     */
+    private static int parsePort(String url, int start, int end) {
+        if (start >= end || end - start > 5) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; ++i) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return 原始的 url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return 例如 http、https，没有时返回 null
+     */
+    public String getScheme() {
+        return schemeEnd < 0 ? null : url.substring(0, schemeEnd);
+    }
+
+    /**
+     * @return scheme 是否是给定的值，忽略大小写，不会创建字符串
+     */
+    public boolean isScheme(String scheme) {
+        return schemeEnd >= 0 && schemeEnd == scheme.length() && url.regionMatches(true, 0, scheme, 0, schemeEnd);
+    }
+
+    /**
+     * @return user:password 部分，没有时返回 null
+     */
+    public String getUserInfo() {
+        return authorityStart < 0 || hostStart == authorityStart ? null : url.substring(authorityStart, hostStart - 1);
+    }
+
+    /**
+     * @return 主机名，IPv6 地址包括中括号，没有 authority 时返回 null
+     */
+    public String getHost() {
+        return hostStart < 0 ? null : url.substring(hostStart, hostEnd);
+    }
+
+    /**
+     * @return 端口，没有指定端口时返回 -1
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return 路径，不存在时返回空字符串
+     */
+    public String getPath() {
+        return url.substring(pathStart, pathEnd);
+    }
+
+    public boolean hasQuery() {
+        return queryStart >= 0;
+    }
+
+    /**
+     * @return '?' 之后 '#' 之前的部分，没有 '?' 时返回 null
+     */
+    public String getQuery() {
+        return queryStart < 0 ? null : url.substring(queryStart, queryEnd);
+    }
+
+    public boolean hasFragment() {
+        return fragmentStart >= 0;
+    }
+
+    /**
+     * @return '#' 之后的部分，没有 '#' 时返回 null
+     */
+    public String getFragment() {
+        return fragmentStart < 0 ? null : url.substring(fragmentStart);
+    }
+
+    /**
+     * @return 查询参数之前的部分，即 scheme://authority/path
+     */
+    public String getBaseUrl() {
+        return url.substring(0, pathEnd);
+    }
+
+    /**
+     * @return 去掉锚点后的 url，没有锚点时返回原字符串
+     */
+    public String getUrlWithoutFragment() {
+        return fragmentStart < 0 ? url : url.substring(0, fragmentStart - 1);
+    }
+
+    int getPathEnd() {
+        return pathEnd;
+    }
+
+    int getQueryStart() {
+        return queryStart;
+    }
+
+    int getQueryEnd() {
+        return queryEnd;
+    }
+
+    int getFragmentStart() {
+        return fragmentStart;
+    }
+
+    /**
+     * 获取第一个参数名为 name 的参数值
+     *
+     * @param name 参数名，不会编码，需要与 url 中的原始参数名一致
+     * @return 参数不存在时返回 null， 没有 '=' 时返回空字符串，返回的值没有解码
+     */
+    public String getParamValue(String name) {
+        QueryIterator iterator = queryIterator();
+        while (iterator.next()) {
+            if (iterator.nameEquals(name)) {
+                return iterator.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 查询参数的遍历器，没有查询参数时 next() 直接返回 false
+     */
+    public QueryIterator queryIterator() {
+        return new QueryIterator(url, queryStart, queryEnd);
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+    /**
+     * 查询参数遍历器，只记录当前参数的位置，空的参数（例如 "a=1&&b=2" 中间的部分）会被跳过
+     * <pre>
+     * ParsedUrl.QueryIterator iterator = parsedUrl.queryIterator();
+     * while (iterator.next()) {
+     *     if (iterator.nameEquals("token")) {
+     *         return iterator.getValue();
+     *     }
+     * }
+     * </pre>
+     */
+    public static final class QueryIterator {
+
+        private final String url;
+
+        private final int end;
+
+        private int position;
+
+        private int nameStart = -1;
+
+        private int nameEnd = -1;
+
+        /**
+         * 参数值的起始位置（'=' 之后），没有 '=' 时为 -1
+         */
+        private int valueStart = -1;
+
+        private int valueEnd = -1;
+
+        QueryIterator(String url, int start, int end) {
+            this.url = url;
+            this.position = start < 0 ? end : start;
+            this.end = end;
+        }
+
+        /**
+         * 移动到下一个参数
+         *
+         * @return 没有更多参数时返回 false
+         */
+        public boolean next() {
+            while (position < end) {
+                int start = position;
+                int equalsIndex = -1;
+                int index = start;
+                while (index < end) {
+                    char c = url.charAt(index);
+                    if (c == '&') {
+                        break;
+                    }
+                    if (c == '=' && equalsIndex < 0) {
+                        equalsIndex = index;
+                    }
+                    ++index;
+                }
+                position = index + 1;
+                if (index == start) {
+                    continue;
+                }
+                nameStart = start;
+                nameEnd = equalsIndex < 0 ? index : equalsIndex;
+                valueStart = equalsIndex < 0 ? -1 : equalsIndex + 1;
+                valueEnd = index;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return 当前参数名是否与给定值一致，不会创建字符串
+         */
+        public boolean nameEquals(String name) {
+            return nameEnd - nameStart == name.length() && url.regionMatches(nameStart, name, 0, name.length());
+        }
+
+        /**
+         * @return 当前参数是否包含 '='
+         */
+        public boolean hasValue() {
+            return valueStart >= 0;
+        }
+
+        /**
+         * @return 当前参数名，没有解码
+         */
+        public String getName() {
+            return url.substring(nameStart, nameEnd);
+        }
+
+        /**
+         * @return 当前参数值，没有 '=' 时返回空字符串，没有解码
+         */
+        public String getValue() {
+            return valueStart < 0 ? "" : url.substring(valueStart, valueEnd);
+        }
+
+        public int getNameStart() {
+            return nameStart;
+        }
+
+        public int getNameEnd() {
+            return nameEnd;
+        }
+
+        /**
+         * @return 参数值在 url 中的起始位置，没有 '=' 时返回 -1
+         */
+        public int getValueStart() {
+            return valueStart;
+        }
+
+        public int getValueEnd() {
+            return valueEnd;
+        }
+    }
+}
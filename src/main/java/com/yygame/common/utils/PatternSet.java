@@ -0,0 +1,340 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 预编译的 url 匹配集合，语义与 {@link UrlPatternUtil#isMatch(String, Set)} 一致：支持完全匹配、通配符 * 和正则表达式
+ * <p>
+ * 创建时对所有匹配项分类，匹配时不再创建正则表达式：
+ * <ul>
+ * <li>不包含正则特殊字符的匹配项放入哈希集合，一次查找</li>
+ * <li>只有末尾一个 * 的匹配项（例如 /admin/*）放入前缀树，只有开头一个 * 的匹配项（例如 *.do）放入后缀树，只需遍历一次 uri</li>
+ * <li>其他只包含 * 的匹配项按 * 切分成片段，依次查找片段</li>
+ * <li>包含正则特殊字符的匹配项预先编译成 Pattern</li>
+ * <li>与 isMatch 一致，通配符匹配项也会按正则表达式再匹配一次（* 作为前一个字符的重复），例如 /admin/* 匹配 /admin，
+ * 所有通配符匹配项合并成一个 Pattern，在其他方式都不匹配时才使用</li>
+ * </ul>
+ * 与 isMatch 不同的是，通配符匹配项和不含正则特殊字符的匹配项中的 '.' 只表示 '.' 本身，不再按正则表达式匹配任意字符
+ * <pre>
+ * PatternSet excludes = UrlPatternUtil.compile(patterns);
+ * if (excludes.matches(request.getRequestURI())) {
+ *     ...
+ * }
+ * </pre>
+ * 创建后不可修改，可以在多个线程中共享
+ *
+ * @author yzy
+ */
+public final class PatternSet {
+
+    private static final String WILDCARD = "*";
+
+    /**
+     * 除了 * 和 . 之外的正则表达式特殊字符
+     */
+    private static final String REGEX_CHARS = "\\[](){}+?^$|";
+
+    private static final AtomicLong ID_GENERATOR = new AtomicLong();
+
+    private final long id = ID_GENERATOR.incrementAndGet();
+
+    private final Set<String> patterns;
+
+    private final boolean matchAll;
+
+    private final Set<String> exactPatterns = new HashSet<>();
+
+    private final CharTrie prefixTrie = new CharTrie();
+
+    private final CharTrie suffixTrie = new CharTrie();
+
+    /**
+     * 其他通配符匹配项按 * 切分后的片段
+     */
+    private final List<String[]> wildcardParts = new ArrayList<>();
+
+    /**
+     * 所有通配符匹配项的正则表达式，uri 中包含 * 时使用（通配符不能匹配 *）
+     */
+    private final List<Pattern> wildcardPatterns = new ArrayList<>();
+
+    private final List<Pattern> regexPatterns = new ArrayList<>();
+
+    /**
+     * 通配符匹配项按正则表达式解释时合并成的 Pattern，没有时为 null
+     */
+    private final Pattern wildcardRawPattern;
+
+    private PatternSet(Collection<String> patterns) {
+        StringBuilder rawRegex = new StringBuilder();
+        Set<String> patternSet = new LinkedHashSet<>();
+        boolean all = false;
+        for (String pattern : patterns) {
+            if (null == pattern) {
+                continue;
+            }
+            patternSet.add(pattern);
+            exactPatterns.add(pattern);
+            if (WILDCARD.equals(pattern)) {
+                all = true;
+            } else if (StringUtils.containsAny(pattern, REGEX_CHARS)) {
+                addRegex(pattern);
+            } else if (pattern.contains(WILDCARD)) {
+                addWildcard(pattern);
+                appendRawRegex(rawRegex, pattern);
+            }
+        }
+        this.patterns = Collections.unmodifiableSet(patternSet);
+        this.matchAll = all;
+        this.wildcardRawPattern = rawRegex.length() == 0 ? null : Pattern.compile(rawRegex.toString());
+    }
+
+    /**
+     * 编译匹配项
+     *
+     * @param patterns 匹配项，null 会被忽略
+     * @return 返回匹配集合
+     */
+    public static PatternSet compile(Collection<String> patterns) {
+        return new PatternSet(null == patterns ? Collections.<String>emptySet() : patterns);
+    }
+
+    public static PatternSet compile(String... patterns) {
+        return compile(null == patterns ? Collections.<String>emptySet() : Arrays.asList(patterns));
+    }
+
+    private void addWildcard(String pattern) {
+        String[] parts = StringUtils.splitPreserveAllTokens(pattern, '*');
+        if (parts.length == 2 && parts[1].isEmpty()) {
+            prefixTrie.add(parts[0], false);
+        } else if (parts.length == 2 && parts[0].isEmpty()) {
+            suffixTrie.add(parts[1], true);
+        } else {
+            wildcardParts.add(parts);
+        }
+        wildcardPatterns.add(Pattern.compile(toWildcardRegex(pattern)));
+    }
+
+    /**
+     * 通配符匹配项按正则表达式解释（'.' 仍然只表示 '.'），能编译时加入 rawRegex
+     */
+    private static void appendRawRegex(StringBuilder rawRegex, String pattern) {
+        String regex = pattern.replace(".", "\\.");
+        try {
+            Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            // 例如 *.js，开头的 * 不是合法的正则表达式
+            return;
+        }
+        if (rawRegex.length() > 0) {
+            rawRegex.append('|');
+        }
+        rawRegex.append("(?:").append(regex).append(')');
+    }
+
+    private void addRegex(String pattern) {
+        regexPatterns.addAll(compileRegex(pattern));
+    }
+
+    /**
+     * 按 isMatch 的规则编译包含正则特殊字符的匹配项：包含 * 时先按通配符转换，再按原样编译，无法编译的忽略
+     *
+     * @param pattern 匹配项
+     * @return 按匹配顺序返回编译成功的 Pattern，都无法编译时返回空列表
+     */
+    static List<Pattern> compileRegex(String pattern) {
+        List<Pattern> result = new ArrayList<>(2);
+        if (pattern.contains(WILDCARD)) {
+            // 通配符和正则表达式混合，与 isMatch 一致先按通配符转换
+            compileQuietly(toWildcardRegex(pattern), result);
+        }
+        compileQuietly(pattern, result);
+        return result;
+    }
+
+    private static void compileQuietly(String regex, List<Pattern> result) {
+        try {
+            result.add(Pattern.compile(regex));
+        } catch (PatternSyntaxException ignored) {
+        }
+    }
+
+    private static String toWildcardRegex(String pattern) {
+        return "^" + pattern.replace(".", "\\.").replace(WILDCARD, "[^\\*]*") + "$";
+    }
+
+    /**
+     * @return 唯一编号，用于 {@link UrlMatchCache} 区分不同的匹配集合
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return 编译前的匹配项
+     */
+    public Set<String> getPatterns() {
+        return patterns;
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * 是否匹配任意一个匹配项
+     *
+     * @param uri 要检查的 uri
+     * @return uri 为空时返回 false
+     */
+    public boolean matches(String uri) {
+        if (patterns.isEmpty() || StringUtils.isBlank(uri)) {
+            return false;
+        }
+        if (matchAll || exactPatterns.contains(uri)) {
+            return true;
+        }
+        if (uri.indexOf('*') < 0) {
+            if (prefixTrie.matchesPrefix(uri) || suffixTrie.matchesSuffix(uri)) {
+                return true;
+            }
+            for (String[] parts : wildcardParts) {
+                if (matchesWildcard(parts, uri)) {
+                    return true;
+                }
+            }
+        } else {
+            for (Pattern pattern : wildcardPatterns) {
+                if (pattern.matcher(uri).matches()) {
+                    return true;
+                }
+            }
+        }
+        for (Pattern pattern : regexPatterns) {
+            if (pattern.matcher(uri).matches()) {
+                return true;
+            }
+        }
+        return null != wildcardRawPattern && wildcardRawPattern.matcher(uri).matches();
+    }
+
+    /**
+     * 首尾片段必须分别是开头和结尾，中间的片段从左到右依次查找最早出现的位置
+     */
+    private static boolean matchesWildcard(String[] parts, String uri) {
+        String first = parts[0];
+        String last = parts[parts.length - 1];
+        int end = uri.length() - last.length();
+        if (end < first.length() || !uri.startsWith(first) || !uri.endsWith(last)) {
+            return false;
+        }
+        int position = first.length();
+        for (int i = 1; i < parts.length - 1; ++i) {
+            String part = parts[i];
+            int index = uri.indexOf(part, position);
+            if (index < 0 || index + part.length() > end) {
+                return false;
+            }
+            position = index + part.length();
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PatternSet" + patterns;
+    }
+
+    /**
+     * 字符前缀树，子节点按字符排序，查找时二分查找，不会创建对象
+     */
+    private static final class CharTrie {
+
+        private char[] keys = new char[0];
+
+        private CharTrie[] children = new CharTrie[0];
+
+        private boolean terminal;
+
+        private void add(String value, boolean reverse) {
+            CharTrie node = this;
+            int length = value.length();
+            for (int i = 0; i < length; ++i) {
+                char c = value.charAt(reverse ? length - 1 - i : i);
+                int index = Arrays.binarySearch(node.keys, c);
+                if (index < 0) {
+                    index = -index - 1;
+                    CharTrie child = new CharTrie();
+                    node.keys = insert(node.keys, index, c);
+                    node.children = insert(node.children, index, child);
+                }
+                node = node.children[index];
+            }
+            node.terminal = true;
+        }
+
+        private static char[] insert(char[] array, int index, char value) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+
+        private static CharTrie[] insert(CharTrie[] array, int index, CharTrie value) {
+            CharTrie[] result = new CharTrie[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+
+        private CharTrie child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * @return uri 是否以任意一个前缀开头
+         */
+        private boolean matchesPrefix(String uri) {
+            CharTrie node = this;
+            int length = uri.length();
+            for (int i = 0; !node.terminal; ++i) {
+                if (i == length || null == (node = node.child(uri.charAt(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return uri 是否以任意一个后缀结尾
+         */
+        private boolean matchesSuffix(String uri) {
+            CharTrie node = this;
+            for (int i = uri.length() - 1; !node.terminal; --i) {
+                if (i < 0 || null == (node = node.child(uri.charAt(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
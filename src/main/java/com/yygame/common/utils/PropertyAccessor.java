@@ -0,0 +1,329 @@
+package com.yygame.common.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 属性访问器，基于 MethodHandle 实现，每个属性只解析一次，之后的读写不再经过 Field.get/set 的反射检查
+ * <p>
+ * 使用方式：
+ * <pre>
+ * PropertyAccessor&lt;User, String&gt; accessor = PropertyAccessor.of(User.class, "name");
+ * for (User user : users) {
+ *     String name = accessor.get(user);
+ * }
+ * </pre>
+ * 基本类型的属性可以使用 getInt/setInt 等方法读写，避免装箱
+ *
+ * @param <T> 属性所属的对象类型
+ * @param <V> 属性值类型
+ * @author yzy
+ */
+public final class PropertyAccessor<T, V> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 声明类 --> (属性名 --> 访问器)，使用 ClassValue 保存，不会阻止类加载器被回收
+     */
+    private static final ClassValue<ConcurrentMap<String, PropertyAccessor<?, ?>>> ACCESSORS = new ClassValue<ConcurrentMap<String, PropertyAccessor<?, ?>>>() {
+        @Override
+        protected ConcurrentMap<String, PropertyAccessor<?, ?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Field field;
+
+    private final Class<?> type;
+
+    /**
+     * (Object)Object
+     */
+    private final MethodHandle getter;
+
+    /**
+     * (Object, Object)void， final 属性为 null
+     */
+    private final MethodHandle setter;
+
+    /**
+     * 基本类型属性的 (Object)primitive， 非基本类型为 null
+     */
+    private final MethodHandle primitiveGetter;
+
+    /**
+     * 基本类型属性的 (Object, primitive)void， 非基本类型或 final 属性为 null
+     */
+    private final MethodHandle primitiveSetter;
+
+    private PropertyAccessor(Field field) {
+        this.field = field;
+        this.type = field.getType();
+
+        if (!field.isAccessible()) {
+            field.setAccessible(true);
+        }
+
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+
+        MethodHandle rawGetter;
+        try {
+            rawGetter = LOOKUP.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("无法访问属性[" + field + "]: " + e.getMessage(), e);
+        }
+        if (isStatic) {
+            rawGetter = MethodHandles.dropArguments(rawGetter, 0, Object.class);
+        }
+
+        MethodHandle rawSetter = null;
+        try {
+            rawSetter = LOOKUP.unreflectSetter(field);
+            if (isStatic) {
+                rawSetter = MethodHandles.dropArguments(rawSetter, 0, Object.class);
+            }
+        } catch (IllegalAccessException ignored) {
+            // static final 属性不允许修改
+        }
+
+        this.getter = rawGetter.asType(GETTER_TYPE);
+        this.setter = null == rawSetter ? null : rawSetter.asType(SETTER_TYPE);
+
+        if (type.isPrimitive()) {
+            this.primitiveGetter = rawGetter.asType(MethodType.methodType(type, Object.class));
+            this.primitiveSetter = null == rawSetter ? null : rawSetter.asType(MethodType.methodType(void.class, Object.class, type));
+        } else {
+            this.primitiveGetter = null;
+            this.primitiveSetter = null;
+        }
+    }
+
+    /**
+     * 获取指定属性的访问器，结果会被缓存
+     *
+     * @param field 属性
+     * @param <T>   属性所属的对象类型
+     * @param <V>   属性值类型
+     * @return 返回属性访问器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> PropertyAccessor<T, V> of(Field field) {
+        AssertUtil.assertNotNull(field, "要访问的属性不能为空");
+        ConcurrentMap<String, PropertyAccessor<?, ?>> accessorMap = ACCESSORS.get(field.getDeclaringClass());
+        PropertyAccessor<?, ?> accessor = accessorMap.get(field.getName());
+        if (null == accessor) {
+            accessor = new PropertyAccessor<>(field);
+            PropertyAccessor<?, ?> existsAccessor = accessorMap.putIfAbsent(field.getName(), accessor);
+            if (null != existsAccessor) {
+                accessor = existsAccessor;
+            }
+        }
+        return (PropertyAccessor<T, V>) accessor;
+    }
+
+    /**
+     * 获取指定类的属性访问器，属性的查找规则同 {@link ReflectUtil#findDeclaredField(Class, String)}
+     *
+     * @param clazz     类
+     * @param fieldName 属性名
+     * @param <T>       属性所属的对象类型
+     * @param <V>       属性值类型
+     * @return 返回属性访问器，属性不存在则返回 null
+     */
+    public static <T, V> PropertyAccessor<T, V> of(Class<T> clazz, String fieldName) {
+        Field field = ReflectUtil.findDeclaredField(clazz, fieldName);
+        if (null == field) {
+            return null;
+        }
+        return of(field);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return field.getName();
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 属性是否可写， static final 属性不可写
+     */
+    public boolean isWritable() {
+        return setter != null;
+    }
+
+    /**
+     * 获取属性值
+     *
+     * @param obj 对象，不能为 null（静态属性除外）
+     * @return 返回属性值，基本类型会被装箱
+     */
+    @SuppressWarnings("unchecked")
+    public V get(T obj) {
+        try {
+            return (V) getter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 设置属性值，和 {@link ReflectUtil#setFieldValue(Object, Field, Object)} 一样，
+     * int/Integer、long/Long 类型的属性可以接受任意的 Number 值
+     *
+     * @param obj   对象，不能为 null（静态属性除外）
+     * @param value 属性值
+     */
+    public void set(T obj, Object value) {
+        checkWritable();
+        if (value instanceof Number) {
+            if (type == int.class || type == Integer.class) {
+                value = ((Number) value).intValue();
+            } else if (type == long.class || type == Long.class) {
+                value = ((Number) value).longValue();
+            }
+        }
+        try {
+            setter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public int getInt(T obj) {
+        checkPrimitive(int.class);
+        try {
+            return (int) primitiveGetter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void setInt(T obj, int value) {
+        checkPrimitive(int.class);
+        checkWritable();
+        try {
+            primitiveSetter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public long getLong(T obj) {
+        checkPrimitive(long.class);
+        try {
+            return (long) primitiveGetter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void setLong(T obj, long value) {
+        checkPrimitive(long.class);
+        checkWritable();
+        try {
+            primitiveSetter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public double getDouble(T obj) {
+        checkPrimitive(double.class);
+        try {
+            return (double) primitiveGetter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void setDouble(T obj, double value) {
+        checkPrimitive(double.class);
+        checkWritable();
+        try {
+            primitiveSetter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public float getFloat(T obj) {
+        checkPrimitive(float.class);
+        try {
+            return (float) primitiveGetter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void setFloat(T obj, float value) {
+        checkPrimitive(float.class);
+        checkWritable();
+        try {
+            primitiveSetter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public boolean getBoolean(T obj) {
+        checkPrimitive(boolean.class);
+        try {
+            return (boolean) primitiveGetter.invokeExact((Object) obj);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void setBoolean(T obj, boolean value) {
+        checkPrimitive(boolean.class);
+        checkWritable();
+        try {
+            primitiveSetter.invokeExact((Object) obj, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private void checkPrimitive(Class<?> primitiveType) {
+        if (type != primitiveType) {
+            throw new IllegalStateException("属性[" + field + "]不是 " + primitiveType.getName() + " 类型");
+        }
+    }
+
+    private void checkWritable() {
+        if (null == setter) {
+            throw new IllegalStateException("属性[" + field + "]不允许修改");
+        }
+    }
+
+    private RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException("访问属性[" + field + "]失败: " + e.getMessage(), e);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyAccessor[" + field + "]";
+    }
+}
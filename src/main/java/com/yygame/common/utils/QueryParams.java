@@ -0,0 +1,281 @@
+package com.yygame.common.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 查询参数视图，支持同名的多个参数，保持参数在 url 中的顺序
+ * <p>
+ * 解析时只记录每个参数名和参数值在原字符串中的位置（int 数组），
+ * 参数名和参数值在第一次访问时才会解码并缓存；不包含 '%' 和 '+' 的参数名比较时不会创建字符串。
+ * 解码失败（例如 '%' 之后不是十六进制数）时返回原始值
+ * <pre>
+ * QueryParams params = QueryParams.parse(callbackUrl);
+ * String orderId = params.getFirst("orderId");
+ * List&lt;String&gt; items = params.getAll("item");
+ * </pre>
+ *
+ * @author yzy
+ */
+public final class QueryParams {
+
+    private static final QueryParams EMPTY = new QueryParams("", new int[0], 0);
+
+    private final String source;
+
+    /**
+     * 每个参数占 4 个位置： 参数名起止位置、参数值起止位置（没有 '=' 时参数值起始位置为 -1）
+     */
+    private final int[] offsets;
+
+    private final int size;
+
+    private String[] decodedNames;
+
+    private String[] decodedValues;
+
+    private QueryParams(String source, int[] offsets, int size) {
+        this.source = source;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * 解析 url 中 '?' 与 '#' 之间的参数
+     *
+     * @param url url 地址
+     * @return 始终返回非 null
+     */
+    public static QueryParams parse(String url) {
+        AssertUtil.assertNotNull(url, "要解析参数的URL不能为空");
+        return parse(ParsedUrl.parse(url));
+    }
+
+    public static QueryParams parse(ParsedUrl parsedUrl) {
+        if (!parsedUrl.hasQuery()) {
+            return EMPTY;
+        }
+        return parse(parsedUrl.queryIterator(), parsedUrl.getUrl());
+    }
+
+    /**
+     * 解析不包含 '?' 的查询字符串，例如表单提交的 a=1&amp;b=2
+     *
+     * @param queryString 查询字符串
+     * @return 始终返回非 null
+     */
+    public static QueryParams parseQueryString(String queryString) {
+        if (null == queryString || queryString.isEmpty()) {
+            return EMPTY;
+        }
+        return parse(new ParsedUrl.QueryIterator(queryString, 0, queryString.length()), queryString);
+    }
+
+    private static QueryParams parse(ParsedUrl.QueryIterator iterator, String source) {
+        int[] offsets = new int[32];
+        int size = 0;
+        while (iterator.next()) {
+            int index = size * 4;
+            if (index == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[index] = iterator.getNameStart();
+            offsets[index + 1] = iterator.getNameEnd();
+            offsets[index + 2] = iterator.getValueStart();
+            offsets[index + 3] = iterator.getValueEnd();
+            ++size;
+        }
+        return size == 0 ? EMPTY : new QueryParams(source, offsets, size);
+    }
+
+    /**
+     * @return 参数个数，同名参数分别计数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index 参数位置
+     * @return 解码后的参数名
+     */
+    public String getName(int index) {
+        checkIndex(index);
+        if (null == decodedNames) {
+            decodedNames = new String[size];
+        }
+        String name = decodedNames[index];
+        if (null == name) {
+            name = decode(offsets[index * 4], offsets[index * 4 + 1]);
+            decodedNames[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @param index 参数位置
+     * @return 解码后的参数值，没有 '=' 时返回 null
+     */
+    public String getValue(int index) {
+        checkIndex(index);
+        int valueStart = offsets[index * 4 + 2];
+        if (valueStart < 0) {
+            return null;
+        }
+        if (null == decodedValues) {
+            decodedValues = new String[size];
+        }
+        String value = decodedValues[index];
+        if (null == value) {
+            value = decode(valueStart, offsets[index * 4 + 3]);
+            decodedValues[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @param index 参数位置
+     * @return 没有解码的参数值，没有 '=' 时返回 null
+     */
+    public String getRawValue(int index) {
+        checkIndex(index);
+        int valueStart = offsets[index * 4 + 2];
+        return valueStart < 0 ? null : source.substring(valueStart, offsets[index * 4 + 3]);
+    }
+
+    /**
+     * @param name 解码后的参数名
+     * @return 第一个同名参数的位置，不存在或者 name 为 null 时返回 -1
+     */
+    public int indexOf(String name) {
+        if (null == name) {
+            return -1;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * @param name 解码后的参数名
+     * @return 第一个同名参数的值，参数不存在、没有 '=' 或者 name 为 null 时返回 null
+     */
+    public String getFirst(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * @param name 解码后的参数名
+     * @return 所有同名参数的值，按出现顺序，没有 '=' 的参数为 null，参数不存在或者 name 为 null 时返回空列表
+     */
+    public List<String> getAll(String name) {
+        if (null == name) {
+            return Collections.emptyList();
+        }
+        List<String> values = null;
+        for (int i = 0; i < size; ++i) {
+            if (nameEquals(i, name)) {
+                if (null == values) {
+                    values = new ArrayList<>(2);
+                }
+                values.add(getValue(i));
+            }
+        }
+        return null == values ? Collections.<String>emptyList() : values;
+    }
+
+    /**
+     * @return 不重复的参数名，按第一次出现的顺序
+     */
+    public Set<String> getNames() {
+        Set<String> names = new LinkedHashSet<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            names.add(getName(i));
+        }
+        return names;
+    }
+
+    /**
+     * @return 参数名 --> 所有参数值，按第一次出现的顺序
+     */
+    public Map<String, List<String>> toMultiMap() {
+        Map<String, List<String>> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            String name = getName(i);
+            List<String> values = map.get(name);
+            if (null == values) {
+                values = new ArrayList<>(1);
+                map.put(name, values);
+            }
+            values.add(getValue(i));
+        }
+        return map;
+    }
+
+    /**
+     * 比较参数名，参数名不需要解码时直接比较原字符串
+     */
+    private boolean nameEquals(int index, String name) {
+        if (null != decodedNames && null != decodedNames[index]) {
+            return decodedNames[index].equals(name);
+        }
+        int start = offsets[index * 4];
+        int end = offsets[index * 4 + 1];
+        if (needsDecode(start, end)) {
+            return getName(index).equals(name);
+        }
+        return end - start == name.length() && source.regionMatches(start, name, 0, name.length());
+    }
+
+    private boolean needsDecode(int start, int end) {
+        for (int i = start; i < end; ++i) {
+            char c = source.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String decode(int start, int end) {
+        if (!needsDecode(start, end)) {
+            return source.substring(start, end);
+        }
+        try {
+            StringBuilder builder = new StringBuilder(end - start);
+            UrlUtil.appendDecoded(builder, source, start, end);
+            return builder.toString();
+        } catch (IllegalArgumentException e) {
+            return source.substring(start, end);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("参数位置: " + index + ", 参数个数: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toMultiMap().toString();
+    }
+}
@@ -5,14 +5,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 反射工具类
@@ -23,19 +28,219 @@ public abstract class ReflectUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(ReflectUtil.class);
 
+    /**
+     * 类元数据缓存，每个类只解析一次；使用 ClassValue 保存，不会阻止类加载器被回收
+     */
+    private static final ClassValue<ClassFields> CLASS_FIELDS = new ClassValue<ClassFields>() {
+        @Override
+        protected ClassFields computeValue(Class<?> type) {
+            return new ClassFields(type);
+        }
+    };
+
+    /**
+     * 类名 --> 类， 缓存 Class.forName 的结果， 避免重复加载
+     */
+    private static final ConcurrentMap<String, Class<?>> CLASS_NAME_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 类的属性元数据：父类列表、非静态属性列表、属性名索引以及属性类型索引
+     */
+    private static final class ClassFields {
+
+        /**
+         * 所有的父类，不包含自身，从直接父类开始
+         */
+        private final List<Class<?>> superclasses;
+
+        /**
+         * 自身以及父类中所有的非静态属性，子类的属性在前
+         */
+        private final List<Field> noneStaticFields;
+
+        /**
+         * 属性名称 --> 属性，包含静态属性，子类属性会覆盖父类的同名属性， 不包含 Object 类
+         */
+        private final Map<String, Field> fieldMap;
+
+        /**
+         * 属性类型 --> 非静态属性列表
+         */
+        private final Map<Class<?>, List<Field>> typeFieldsMap;
+
+        private ClassFields(Class<?> clazz) {
+            List<Class<?>> classes = new ArrayList<>();
+            for (Class<?> superclass = clazz.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+                classes.add(superclass);
+            }
+
+            List<Field> fields = new ArrayList<>();
+            Map<String, Field> nameMap = new HashMap<>();
+            Map<Class<?>, List<Field>> typeMap = new HashMap<>();
+
+            for (Class<?> cls = clazz; cls != null; cls = cls.getSuperclass()) {
+                Field[] declaredFields = cls.getDeclaredFields();
+                for (Field field : declaredFields) {
+                    if (cls != Object.class && !nameMap.containsKey(field.getName())) {
+                        nameMap.put(field.getName(), field);
+                    }
+                    // 过滤静态属性
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    fields.add(field);
+                    List<Field> typeFields = typeMap.get(field.getType());
+                    if (null == typeFields) {
+                        typeFields = new ArrayList<>();
+                        typeMap.put(field.getType(), typeFields);
+                    }
+                    typeFields.add(field);
+                }
+            }
+
+            this.superclasses = Collections.unmodifiableList(classes);
+            this.noneStaticFields = Collections.unmodifiableList(fields);
+            this.fieldMap = nameMap;
+            this.typeFieldsMap = typeMap;
+        }
+    }
+
+    /**
+     * 类的注解索引缓存，使用 ClassValue 保存，不会阻止类加载器被回收
+     */
+    private static final ClassValue<AnnotationIndex> ANNOTATION_INDEX = new ClassValue<AnnotationIndex>() {
+        @Override
+        protected AnnotationIndex computeValue(Class<?> type) {
+            return new AnnotationIndex(type);
+        }
+    };
+
+    /**
+     * 类的注解索引，包含类本身的注解、类中声明的方法/属性的注解（懒加载），
+     * 以及 注解类型 --> 方法/属性 的索引（第一次使用时构建）， 所有的注解都包含元注解
+     */
+    private static final class AnnotationIndex {
+
+        private final Class<?> clazz;
+
+        /**
+         * 类上的注解（包含 @Inherited 继承的注解以及元注解）
+         */
+        private final Map<Class<? extends Annotation>, Annotation> classAnnotations;
+
+        /**
+         * 当前类声明的方法/属性 --> 注解
+         */
+        private final ConcurrentMap<AnnotatedElement, Map<Class<? extends Annotation>, Annotation>> elementAnnotations = new ConcurrentHashMap<>();
+
+        /**
+         * 注解类型 --> public 方法列表（包含父类的）
+         */
+        private volatile Map<Class<? extends Annotation>, List<Method>> methodIndex;
+
+        /**
+         * 注解类型 --> 属性列表（包含父类的）
+         */
+        private volatile Map<Class<? extends Annotation>, List<Field>> fieldIndex;
+
+        private AnnotationIndex(Class<?> clazz) {
+            this.clazz = clazz;
+            this.classAnnotations = collectAnnotations(clazz.getAnnotations());
+        }
+
+        private Map<Class<? extends Annotation>, Annotation> getAnnotations(AnnotatedElement element) {
+            Map<Class<? extends Annotation>, Annotation> annotations = elementAnnotations.get(element);
+            if (null == annotations) {
+                annotations = collectAnnotations(element.getAnnotations());
+                Map<Class<? extends Annotation>, Annotation> existsAnnotations = elementAnnotations.putIfAbsent(element, annotations);
+                if (null != existsAnnotations) {
+                    annotations = existsAnnotations;
+                }
+            }
+            return annotations;
+        }
+
+        private Map<Class<? extends Annotation>, List<Method>> getMethodIndex() {
+            Map<Class<? extends Annotation>, List<Method>> index = methodIndex;
+            if (null == index) {
+                index = new HashMap<>();
+                for (Method method : clazz.getMethods()) {
+                    Map<Class<? extends Annotation>, Annotation> annotations = ANNOTATION_INDEX.get(method.getDeclaringClass()).getAnnotations(method);
+                    for (Class<? extends Annotation> annotationType : annotations.keySet()) {
+                        addToIndex(index, annotationType, method);
+                    }
+                }
+                methodIndex = index;
+            }
+            return index;
+        }
+
+        private Map<Class<? extends Annotation>, List<Field>> getFieldIndex() {
+            Map<Class<? extends Annotation>, List<Field>> index = fieldIndex;
+            if (null == index) {
+                index = new HashMap<>();
+                for (Class<?> cls = clazz; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+                    AnnotationIndex declaredIndex = ANNOTATION_INDEX.get(cls);
+                    for (Field field : cls.getDeclaredFields()) {
+                        for (Class<? extends Annotation> annotationType : declaredIndex.getAnnotations(field).keySet()) {
+                            addToIndex(index, annotationType, field);
+                        }
+                    }
+                }
+                fieldIndex = index;
+            }
+            return index;
+        }
+
+        private static <E> void addToIndex(Map<Class<? extends Annotation>, List<E>> index, Class<? extends Annotation> annotationType, E element) {
+            List<E> elements = index.get(annotationType);
+            if (null == elements) {
+                elements = new ArrayList<>();
+                index.put(annotationType, elements);
+            }
+            elements.add(element);
+        }
+
+        /**
+         * 收集注解以及注解上的元注解， 直接声明的注解优先
+         */
+        private static Map<Class<? extends Annotation>, Annotation> collectAnnotations(Annotation[] annotations) {
+            if (null == annotations || annotations.length < 1) {
+                return Collections.emptyMap();
+            }
+            Map<Class<? extends Annotation>, Annotation> annotationMap = new HashMap<>();
+            for (Annotation annotation : annotations) {
+                annotationMap.put(annotation.annotationType(), annotation);
+            }
+            for (Annotation annotation : annotations) {
+                collectMetaAnnotations(annotation.annotationType(), annotationMap);
+            }
+            return annotationMap;
+        }
+
+        private static void collectMetaAnnotations(Class<? extends Annotation> annotationType, Map<Class<? extends Annotation>, Annotation> annotationMap) {
+            for (Annotation metaAnnotation : annotationType.getAnnotations()) {
+                Class<? extends Annotation> metaType = metaAnnotation.annotationType();
+                // 忽略 @Target @Retention 等 JDK 元注解
+                if (metaType.getName().startsWith("java.lang.annotation.") || annotationMap.containsKey(metaType)) {
+                    continue;
+                }
+                annotationMap.put(metaType, metaAnnotation);
+                collectMetaAnnotations(metaType, annotationMap);
+            }
+        }
+    }
+
     public static List<Class<?>> getAllSuperclasses(final Class<?> cls, boolean includeSelf) {
         if (cls == null) {
             return null;
         }
-        final List<Class<?>> classes = new ArrayList<>();
-        Class<?> superclass = cls.getSuperclass();
-        while (superclass != null) {
-            classes.add(superclass);
-            superclass = superclass.getSuperclass();
-        }
+        List<Class<?>> superclasses = CLASS_FIELDS.get(cls).superclasses;
+        final List<Class<?>> classes = new ArrayList<>(superclasses.size() + 1);
         if (includeSelf) {
-            classes.add(0, cls);
+            classes.add(cls);
         }
+        classes.addAll(superclasses);
         return classes;
     }
 
@@ -50,27 +255,12 @@ public abstract class ReflectUtil {
         if (null == clazz) {
             return new ArrayList<Field>();
         }
-        List<Field> fields = new ArrayList<>();
-
-        List<Class<?>> classes = getAllSuperclasses(clazz, true);
-
-        for (Class<?> cls : classes) {
-            Field[] declaredFields = cls.getDeclaredFields();
-            if (null != declaredFields && declaredFields.length > 0) {
-                for (Field field : declaredFields) {
-                    // 过滤静态属性
-                    if (Modifier.isStatic(field.getModifiers())) {
-                        continue;
-                    }
-                    if (null == fieldType) {
-                        fields.add(field);
-                    } else if (field.getType().equals(fieldType)) {
-                        fields.add(field);
-                    }
-                }
-            }
+        ClassFields classFields = CLASS_FIELDS.get(clazz);
+        if (null == fieldType) {
+            return new ArrayList<>(classFields.noneStaticFields);
         }
-        return fields;
+        List<Field> fields = classFields.typeFieldsMap.get(fieldType);
+        return null == fields ? new ArrayList<Field>() : new ArrayList<>(fields);
     }
 
     /**
@@ -128,13 +318,7 @@ public abstract class ReflectUtil {
         if (null == clazz || StringUtils.isBlank(fieldName)) {
             return null;
         }
-        for (Class<?> superClass = clazz; superClass != Object.class; superClass = superClass.getSuperclass()) {
-            try {
-                return superClass.getDeclaredField(fieldName);
-            } catch (NoSuchFieldException ignored) {
-            }
-        }
-        return null;
+        return CLASS_FIELDS.get(clazz).fieldMap.get(fieldName);
     }
 
     /**
@@ -175,7 +359,32 @@ public abstract class ReflectUtil {
     }
 
     /**
-     * 获取指定类的指定类型的Annotation
+     * 获取属性访问器，访问器会被缓存，适合在循环中反复读写同一个属性
+     *
+     * @param field 属性
+     * @param <T>   属性所属的对象类型
+     * @param <V>   属性值类型
+     * @return 返回属性访问器
+     */
+    public static <T, V> PropertyAccessor<T, V> getPropertyAccessor(Field field) {
+        return PropertyAccessor.of(field);
+    }
+
+    /**
+     * 获取属性访问器，访问器会被缓存，适合在循环中反复读写同一个属性
+     *
+     * @param clazz     类
+     * @param fieldName 属性名，包含私有的，会搜索父类
+     * @param <T>       属性所属的对象类型
+     * @param <V>       属性值类型
+     * @return 返回属性访问器，属性不存在则返回 null
+     */
+    public static <T, V> PropertyAccessor<T, V> getPropertyAccessor(Class<T> clazz, String fieldName) {
+        return PropertyAccessor.of(clazz, fieldName);
+    }
+
+    /**
+     * 获取指定类的指定类型的Annotation， 包含元注解
      *
      * @param clazz           类
      * @param annotationClass annotation class
@@ -183,34 +392,35 @@ public abstract class ReflectUtil {
      * @return 如果不存在则返回null
      */
     public static <A extends Annotation> A getClassAnnotation(Class<?> clazz, Class<A> annotationClass) {
-        return clazz.getAnnotation(annotationClass);
+        return annotationClass.cast(ANNOTATION_INDEX.get(clazz).classAnnotations.get(annotationClass));
     }
 
     /**
-     * 获取指定类中含有特定注解的方法列表, 同时会搜索父类的方法
+     * 获取指定类中含有特定注解（包含元注解）的方法列表, 同时会搜索父类的方法
      *
      * @param clazz           类
      * @param annotationClass 注解类
      * @return 返回方法列表
      */
     public static <A extends Annotation> List<Method> getMethodForSpecificAnnotation(Class<?> clazz, Class<A> annotationClass) {
+        List<Method> methods = ANNOTATION_INDEX.get(clazz).getMethodIndex().get(annotationClass);
+        return null == methods ? new ArrayList<Method>() : new ArrayList<>(methods);
+    }
 
-        List<Method> methodList = new ArrayList<>();
-        Method[] methods = clazz.getMethods();
-        if (null != methods && methods.length > 0) {
-
-            for (Method method : methods) {
-                A annotation = getMethodAnnotation(method, annotationClass);
-                if (annotation != null) {
-                    methodList.add(method);
-                }
-            }
-        }
-        return methodList;
+    /**
+     * 获取指定类中含有特定注解（包含元注解）的属性列表, 同时会搜索父类的属性
+     *
+     * @param clazz           类
+     * @param annotationClass 注解类
+     * @return 返回属性列表
+     */
+    public static <A extends Annotation> List<Field> getFieldForSpecificAnnotation(Class<?> clazz, Class<A> annotationClass) {
+        List<Field> fields = ANNOTATION_INDEX.get(clazz).getFieldIndex().get(annotationClass);
+        return null == fields ? new ArrayList<Field>() : new ArrayList<>(fields);
     }
 
     /**
-     * 获取指定属性的指定类型的Annotation
+     * 获取指定属性的指定类型的Annotation， 包含元注解
      *
      * @param field           属性
      * @param annotationClass annotation class
@@ -218,11 +428,11 @@ public abstract class ReflectUtil {
      * @return 如果不存在则返回null
      */
     public static <A extends Annotation> A getFieldAnnotation(Field field, Class<A> annotationClass) {
-        return field.getAnnotation(annotationClass);
+        return annotationClass.cast(ANNOTATION_INDEX.get(field.getDeclaringClass()).getAnnotations(field).get(annotationClass));
     }
 
     /**
-     * 获取指定方法的指定类型的Annotation
+     * 获取指定方法的指定类型的Annotation， 包含元注解
      *
      * @param method          属性
      * @param annotationClass annotation class
@@ -230,7 +440,7 @@ public abstract class ReflectUtil {
      * @return 如果不存在则返回null
      */
     public static <A extends Annotation> A getMethodAnnotation(Method method, Class<A> annotationClass) {
-        return method.getAnnotation(annotationClass);
+        return annotationClass.cast(ANNOTATION_INDEX.get(method.getDeclaringClass()).getAnnotations(method).get(annotationClass));
     }
 
     /**
@@ -352,7 +562,7 @@ public abstract class ReflectUtil {
      */
     public static <T> T newInstanceByDefaultConstructor(Class<T> superClass, String className) {
         try {
-            Class<?> clazz = Class.forName(className);
+            Class<?> clazz = forName(className);
             return newInstanceByDefaultConstructor(superClass, clazz);
         } catch (Exception e) {
             logger.warn("实例化类[" + className + "]失败： " + e.getMessage());
@@ -360,6 +570,22 @@ public abstract class ReflectUtil {
         }
     }
 
+    /**
+     * 根据类名加载类，加载成功的结果会被缓存
+     *
+     * @param className 类名
+     * @return 返回类对象
+     * @throws ClassNotFoundException 类不存在
+     */
+    private static Class<?> forName(String className) throws ClassNotFoundException {
+        Class<?> clazz = CLASS_NAME_CACHE.get(className);
+        if (null == clazz) {
+            clazz = Class.forName(className);
+            CLASS_NAME_CACHE.putIfAbsent(className, clazz);
+        }
+        return clazz;
+    }
+
     /**
      * 使用默认构造函数生成实例
      *
@@ -385,17 +611,7 @@ public abstract class ReflectUtil {
                 return null;
             }
 
-            Constructor<?> constructor = clazz.getConstructor();
-
-            if (constructor == null) {
-                throw new RuntimeException("指定的类[" + clazz.getName() + "] 没有一个默认的无参构造函数！");
-            }
-
-            if (!constructor.isAccessible()) {
-                constructor.setAccessible(true);
-            }
-
-            return superClass.cast(constructor.newInstance());
+            return superClass.cast(Instantiator.of(clazz).newInstance());
 
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
@@ -403,6 +619,17 @@ public abstract class ReflectUtil {
         }
     }
 
+    /**
+     * 获取使用默认构造函数的实例化器，实例化器会被缓存，适合反复创建同一个类的实例
+     *
+     * @param clazz 要实例化的类,注意，该类必须是 public 的
+     * @param <T>   实例类型
+     * @return 返回实例化器
+     */
+    public static <T> Instantiator<T> getInstantiator(Class<T> clazz) {
+        return Instantiator.of(clazz);
+    }
+
     public static Class<?> loadClass(String className, ClassLoader classLoader) {
         if (null == classLoader) {
             classLoader = ReflectUtil.class.getClassLoader();
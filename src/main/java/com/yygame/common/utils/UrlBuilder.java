@@ -0,0 +1,217 @@
+package com.yygame.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * 可修改的 url，解析一次之后可以多次设置、追加、删除参数，最后一次性生成新的 url
+ * <pre>
+ * String redirectUrl = new UrlBuilder(url)
+ *         .set("token", token)
+ *         .set("ts", String.valueOf(System.currentTimeMillis()))
+ *         .remove("code")
+ *         .build();
+ * </pre>
+ * set/add 会对参数名和参数值编码，已经编码过的值使用 xxxEncoded 方法设置，避免重复编码；
+ * 原 url 中的参数保持原样，顺序不变，'#' 之后的锚点会保留在末尾
+ *
+ * @author yzy
+ */
+public class UrlBuilder {
+
+    private final String url;
+
+    /**
+     * 参数之前的部分，即 url 中 [0, baseEnd) 的部分
+     */
+    private final int baseEnd;
+
+    /**
+     * 编码过的参数名
+     */
+    private String[] names;
+
+    /**
+     * 编码过的参数值，为 null 表示参数没有 '='
+     */
+    private String[] values;
+
+    private int size;
+
+    private String fragment;
+
+    /**
+     * @param url 原始 url，可以是相对路径
+     */
+    public UrlBuilder(String url) {
+        ParsedUrl parsedUrl = ParsedUrl.parse(url);
+        this.url = url;
+        this.baseEnd = parsedUrl.getPathEnd();
+        this.fragment = parsedUrl.getFragment();
+        this.names = new String[8];
+        this.values = new String[8];
+
+        ParsedUrl.QueryIterator iterator = parsedUrl.queryIterator();
+        while (iterator.next()) {
+            // 原 url 中的参数保持原样，包括参数名为空的参数（例如 ?=1）
+            append(iterator.getName(), iterator.hasValue() ? iterator.getValue() : null);
+        }
+    }
+
+    /**
+     * 设置参数，已经存在的同名参数会被替换（只保留第一个的位置），不存在则追加
+     *
+     * @param name  参数名
+     * @param value 参数值，没有编码，为 null 则只有参数名
+     * @return 返回当前对象
+     */
+    public UrlBuilder set(String name, String value) {
+        return setEncoded(UrlUtil.encodeComponent(name), UrlUtil.encodeComponent(value));
+    }
+
+    /**
+     * 设置编码过的参数
+     *
+     * @param name  编码过的参数名
+     * @param value 编码过的参数值，为 null 则只有参数名
+     * @return 返回当前对象
+     */
+    public UrlBuilder setEncoded(String name, String value) {
+        int index = indexOf(name, 0);
+        if (index < 0) {
+            return addEncoded(name, value);
+        }
+        values[index] = value;
+        removeFrom(name, index + 1);
+        return this;
+    }
+
+    /**
+     * 追加参数，不会影响已经存在的同名参数
+     *
+     * @param name  参数名
+     * @param value 参数值，没有编码，为 null 则只有参数名
+     * @return 返回当前对象
+     */
+    public UrlBuilder add(String name, String value) {
+        return addEncoded(UrlUtil.encodeComponent(name), UrlUtil.encodeComponent(value));
+    }
+
+    /**
+     * 追加编码过的参数
+     *
+     * @param name  编码过的参数名
+     * @param value 编码过的参数值，为 null 则只有参数名
+     * @return 返回当前对象
+     */
+    public UrlBuilder addEncoded(String name, String value) {
+        AssertUtil.assertNotBlank(name, "参数名不能为空");
+        append(name, value);
+        return this;
+    }
+
+    private void append(String name, String value) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size] = value;
+        ++size;
+    }
+
+    /**
+     * 删除所有同名参数
+     *
+     * @param name 参数名，没有编码
+     * @return 返回当前对象
+     */
+    public UrlBuilder remove(String name) {
+        removeFrom(UrlUtil.encodeComponent(name), 0);
+        return this;
+    }
+
+    /**
+     * @param name 参数名，没有编码
+     * @return 是否包含参数
+     */
+    public boolean contains(String name) {
+        return indexOf(UrlUtil.encodeComponent(name), 0) >= 0;
+    }
+
+    /**
+     * 获取第一个同名参数的值
+     *
+     * @param name 参数名，没有编码
+     * @return 编码过的参数值，不存在或者没有 '=' 时返回 null
+     */
+    public String getEncoded(String name) {
+        int index = indexOf(UrlUtil.encodeComponent(name), 0);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * 设置锚点
+     *
+     * @param fragment '#' 之后的部分，为 null 则去掉锚点
+     * @return 返回当前对象
+     */
+    public UrlBuilder setFragment(String fragment) {
+        this.fragment = fragment;
+        return this;
+    }
+
+    private int indexOf(String name, int from) {
+        for (int i = from; i < size; ++i) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 删除 from 之后的同名参数，剩余参数保持顺序
+     */
+    private void removeFrom(String name, int from) {
+        int count = from;
+        for (int i = from; i < size; ++i) {
+            if (!names[i].equals(name)) {
+                names[count] = names[i];
+                values[count] = values[i];
+                ++count;
+            }
+        }
+        Arrays.fill(names, count, size, null);
+        Arrays.fill(values, count, size, null);
+        size = count;
+    }
+
+    /**
+     * 生成 url，先计算长度，一次写入
+     *
+     * @return 返回新的 url
+     */
+    public String build() {
+        int capacity = baseEnd + (null == fragment ? 0 : fragment.length() + 1);
+        for (int i = 0; i < size; ++i) {
+            capacity += names[i].length() + 2 + (null == values[i] ? 0 : values[i].length());
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        builder.append(url, 0, baseEnd);
+        for (int i = 0; i < size; ++i) {
+            builder.append(i == 0 ? '?' : '&').append(names[i]);
+            if (null != values[i]) {
+                builder.append('=').append(values[i]);
+            }
+        }
+        if (null != fragment) {
+            builder.append('#').append(fragment);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+}
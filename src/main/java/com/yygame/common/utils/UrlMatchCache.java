@@ -0,0 +1,214 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.collections.map.LRUMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有容量上限的 url 匹配结果缓存，用于同一批 uri 反复匹配的场景（例如过滤器中的静态资源、接口路径）
+ * <p>
+ * 以 (匹配集合编号, uri) 或 (通配符, 字符串) 作为键缓存匹配结果，命中时只需一次哈希查找；
+ * 缓存按键的哈希分成多个段，每段是一个 {@link LRUMap}，只锁住所在的段，超出容量时淘汰该段最久没有访问的结果。
+ * 缓存是可选的，不需要缓存时直接使用 {@link PatternSet#matches(String)}
+ * <pre>
+ * private static final UrlMatchCache MATCH_CACHE = new UrlMatchCache(10000);
+ *
+ * if (UrlPatternUtil.isMatch(request.getRequestURI(), excludes, MATCH_CACHE)) {
+ *     ...
+ * }
+ * </pre>
+ * uri 中包含随机内容（例如 /user/123456）时命中率很低，可以通过 {@link #getHitRatio()} 观察是否值得缓存
+ *
+ * @author yzy
+ */
+public class UrlMatchCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final LRUMap[] segments;
+
+    private final int maxSize;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param maxSize 最多缓存的结果个数，平均分到每个段中
+     */
+    public UrlMatchCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maxSize);
+        }
+        int segmentCount = Math.min(SEGMENT_COUNT, maxSize);
+        int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+        this.segments = new LRUMap[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new LRUMap(segmentSize);
+        }
+        this.maxSize = segmentSize * segmentCount;
+    }
+
+    /**
+     * 是否匹配预编译的匹配项，结果与 {@link PatternSet#matches(String)} 一致
+     *
+     * @param uri        要检查的 uri
+     * @param patternSet 编译后的匹配集合
+     * @return 如果匹配项目中有一个匹配都会返回成功
+     */
+    public boolean isMatch(String uri, PatternSet patternSet) {
+        if (null == patternSet || null == uri) {
+            return false;
+        }
+        Key key = new Key(patternSet.getId(), null, uri);
+        Boolean result = get(key);
+        if (null == result) {
+            result = patternSet.matches(uri);
+            put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 检查字符串是否满足通配符，结果与 {@link CommonUtil#isStartWildcardMatch(String, String)} 一致
+     *
+     * @param string          字符串
+     * @param wildcardPattern 包含 * 的通配符
+     * @return 返回是否匹配
+     */
+    public boolean isStartWildcardMatch(String string, String wildcardPattern) {
+        if (null == string || null == wildcardPattern) {
+            return false;
+        }
+        Key key = new Key(0, wildcardPattern, string);
+        Boolean result = get(key);
+        if (null == result) {
+            result = CommonUtil.isStartWildcardMatch(string, wildcardPattern);
+            put(key, result);
+        }
+        return result;
+    }
+
+    private LRUMap segmentFor(Key key) {
+        int hash = key.hash ^ (key.hash >>> 16);
+        return segments[(hash & 0x7FFFFFFF) % segments.length];
+    }
+
+    private Boolean get(Key key) {
+        LRUMap segment = segmentFor(key);
+        Boolean result;
+        synchronized (segment) {
+            result = (Boolean) segment.get(key);
+        }
+        if (null == result) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    private void put(Key key, Boolean result) {
+        LRUMap segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, result);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return 命中次数 / 查询次数，没有查询时返回 0
+     */
+    public double getHitRatio() {
+        long hit = hitCount.get();
+        long total = hit + missCount.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return 当前缓存的结果个数
+     */
+    public int size() {
+        int size = 0;
+        for (LRUMap segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return 实际容量，按段数向上取整
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 清空缓存和命中统计
+     */
+    public void clear() {
+        for (LRUMap segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "UrlMatchCache{size=" + size() + ", maxSize=" + maxSize
+                + ", hitCount=" + hitCount.get() + ", missCount=" + missCount.get() + "}";
+    }
+
+    /**
+     * 缓存键，匹配集合使用编号区分，通配符使用通配符本身区分
+     */
+    private static final class Key {
+
+        private final long patternSetId;
+
+        private final String pattern;
+
+        private final String uri;
+
+        private final int hash;
+
+        private Key(long patternSetId, String pattern, String uri) {
+            this.patternSetId = patternSetId;
+            this.pattern = pattern;
+            this.uri = uri;
+            int h = (int) (patternSetId ^ (patternSetId >>> 32));
+            h = 31 * h + (null == pattern ? 0 : pattern.hashCode());
+            this.hash = 31 * h + uri.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && patternSetId == other.patternSetId
+                    && uri.equals(other.uri) && CommonUtil.isEqual(pattern, other.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.yygame.common.utils;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -50,4 +51,40 @@ public abstract class UrlPatternUtil {
         }
         return false;
     }
+
+    /**
+     * 预编译匹配项，需要反复匹配同一组匹配项时（例如过滤器中）使用
+     *
+     * @param patterns 匹配项目
+     * @return 返回编译后的匹配集合，参考 {@link PatternSet}
+     */
+    public static PatternSet compile(Collection<String> patterns) {
+        return PatternSet.compile(patterns);
+    }
+
+    /**
+     * 是否匹配预编译的匹配项
+     *
+     * @param uri        要检查的 uri
+     * @param patternSet 编译后的匹配集合
+     * @return 如果匹配项目中有一个匹配都会返回成功
+     */
+    public static boolean isMatch(String uri, PatternSet patternSet) {
+        return null != patternSet && patternSet.matches(uri);
+    }
+
+    /**
+     * 是否匹配预编译的匹配项，使用缓存保存匹配结果
+     *
+     * @param uri        要检查的 uri
+     * @param patternSet 编译后的匹配集合
+     * @param cache      匹配结果缓存，为 null 时不使用缓存
+     * @return 如果匹配项目中有一个匹配都会返回成功
+     */
+    public static boolean isMatch(String uri, PatternSet patternSet, UrlMatchCache cache) {
+        if (null == cache) {
+            return isMatch(uri, patternSet);
+        }
+        return cache.isMatch(uri, patternSet);
+    }
 }
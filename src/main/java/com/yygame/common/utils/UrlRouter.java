@@ -0,0 +1,431 @@
+package com.yygame.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * url 路由，匹配项的写法与 {@link UrlPatternUtil} 一致（完全匹配、通配符 *、正则表达式），
+ * 返回匹配到的路由以及通配符 * 对应的内容
+ * <p>
+ * 通配符路由按第一个 * 之前的完整路径片段放入路径树中，例如 /api/v1/*.json 放在 api -&gt; v1 节点下，
+ * 剩余部分 *.json 与 uri 剩余部分匹配， * 可以匹配除了 '*' 以外包括 '/' 在内的任意字符（与 isMatch 一致）。
+ * 与 {@link PatternSet} 一致，通配符路由也会按原样作为正则表达式（'.' 只表示 '.' 本身）匹配，例如 /admin/* 可以匹配 /admin。
+ * 包含正则特殊字符的匹配项按 isMatch 的规则编译：包含 * 时先按通配符转换，再按原样编译，都无法编译时只能完全匹配。优先级：
+ * <ol>
+ * <li>完全匹配</li>
+ * <li>通配符路由，所在节点越深越优先，同一节点中字面字符越多越优先，再按添加顺序</li>
+ * <li>正则表达式路由，按添加顺序，分组作为匹配内容</li>
+ * <li>通配符路由按原样作为正则表达式，按添加顺序</li>
+ * <li>匹配项 *，作为默认路由</li>
+ * </ol>
+ * {@link #route(String)} 只返回路由，完全匹配和通配符路由查找时不会创建对象；{@link #match(String)} 同时返回匹配内容
+ * <pre>
+ * UrlRouter&lt;String&gt; router = new UrlRouter&lt;String&gt;()
+ *         .add("/user/*", "user-service")
+ *         .add("/order/*&#47;detail", "order-service");
+ * UrlRouter.RouteMatch&lt;String&gt; match = router.match("/order/123/detail");
+ * // match.getTarget() == "order-service", match.getCaptures() == ["123"]
+ * </pre>
+ * 添加路由不是线程安全的，添加完成之后可以在多个线程中共享
+ *
+ * @param <T> 路由目标类型
+ * @author yzy
+ */
+public class UrlRouter<T> {
+
+    private static final String WILDCARD = "*";
+
+    /**
+     * 除了 * 和 . 之外的正则表达式特殊字符
+     */
+    private static final String REGEX_CHARS = "\\[](){}+?^$|";
+
+    private final Set<String> patterns = new HashSet<>();
+
+    private final Map<String, Route<T>> exactRoutes = new HashMap<>();
+
+    private final Node<T> root = new Node<>();
+
+    private final List<Route<T>> regexRoutes = new ArrayList<>();
+
+    /**
+     * 通配符路由按原样编译的正则表达式路由，通配符路由和正则表达式路由都没有匹配时才尝试
+     */
+    private final List<Route<T>> wildcardRawRoutes = new ArrayList<>();
+
+    /**
+     * 匹配项 * 对应的路由，优先级最低
+     */
+    private Route<T> defaultRoute;
+
+    private int routeCount;
+
+    /**
+     * 路由
+     *
+     * @param <T> 路由目标类型
+     */
+    public static final class Route<T> {
+
+        private final String pattern;
+
+        private final T target;
+
+        /**
+         * 通配符部分在 uri 中的起始位置，即路径树中的前缀长度
+         */
+        private final int offset;
+
+        /**
+         * 通配符部分按 * 切分后的片段
+         */
+        private final String[] parts;
+
+        private final Pattern regex;
+
+        private final int order;
+
+        private Route(String pattern, T target, int offset, String[] parts, Pattern regex, int order) {
+            this.pattern = pattern;
+            this.target = target;
+            this.offset = offset;
+            this.parts = parts;
+            this.regex = regex;
+            this.order = order;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public T getTarget() {
+            return target;
+        }
+
+        /**
+         * @return 字面字符的个数，用于同一节点中的排序
+         */
+        private int literalLength() {
+            int length = 0;
+            for (String part : parts) {
+                length += part.length();
+            }
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return pattern + " -> " + target;
+        }
+    }
+
+    /**
+     * 路由匹配结果
+     *
+     * @param <T> 路由目标类型
+     */
+    public static final class RouteMatch<T> {
+
+        private final Route<T> route;
+
+        private final List<String> captures;
+
+        private RouteMatch(Route<T> route, List<String> captures) {
+            this.route = route;
+            this.captures = captures;
+        }
+
+        public Route<T> getRoute() {
+            return route;
+        }
+
+        public String getPattern() {
+            return route.pattern;
+        }
+
+        public T getTarget() {
+            return route.target;
+        }
+
+        /**
+         * @return 通配符路由为每个 * 匹配到的内容，正则表达式路由为各个分组，完全匹配时为空列表
+         */
+        public List<String> getCaptures() {
+            return captures;
+        }
+
+        @Override
+        public String toString() {
+            return route + " " + captures;
+        }
+    }
+
+    /**
+     * 路径树节点
+     */
+    private static final class Node<T> {
+
+        private String[] segments = new String[0];
+
+        private int[] hashes = new int[0];
+
+        private final List<Node<T>> children = new ArrayList<>();
+
+        /**
+         * 按优先级排序的通配符路由
+         */
+        private final List<Route<T>> routes = new ArrayList<>();
+
+        private Node<T> getOrCreateChild(String segment) {
+            for (int i = 0; i < segments.length; ++i) {
+                if (segments[i].equals(segment)) {
+                    return children.get(i);
+                }
+            }
+            int size = segments.length;
+            segments = Arrays.copyOf(segments, size + 1);
+            hashes = Arrays.copyOf(hashes, size + 1);
+            segments[size] = segment;
+            hashes[size] = segment.hashCode();
+            Node<T> child = new Node<>();
+            children.add(child);
+            return child;
+        }
+
+        /**
+         * 查找 uri 中 [start, end) 对应的子节点，不会创建子字符串
+         */
+        private Node<T> child(String uri, int start, int end) {
+            if (segments.length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; ++i) {
+                hash = 31 * hash + uri.charAt(i);
+            }
+            int length = end - start;
+            for (int i = 0; i < segments.length; ++i) {
+                if (hashes[i] == hash && segments[i].length() == length && uri.regionMatches(start, segments[i], 0, length)) {
+                    return children.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 添加路由
+     *
+     * @param pattern 匹配项，写法与 {@link UrlPatternUtil#isMatch(String, Set)} 一致
+     * @param target  路由目标
+     * @return 返回当前对象
+     * @throws IllegalArgumentException 匹配项为空或者重复
+     */
+    public UrlRouter<T> add(String pattern, T target) {
+        if (StringUtils.isEmpty(pattern)) {
+            throw new IllegalArgumentException("路由匹配项不能为空");
+        }
+        if (!patterns.add(pattern)) {
+            throw new IllegalArgumentException("重复的路由匹配项: " + pattern);
+        }
+        int order = routeCount++;
+        if (WILDCARD.equals(pattern)) {
+            defaultRoute = new Route<>(pattern, target, 0, new String[]{"", ""}, null, order);
+            return this;
+        }
+        if (StringUtils.containsAny(pattern, REGEX_CHARS)) {
+            Route<T> exactRoute = null;
+            for (Pattern regex : PatternSet.compileRegex(pattern)) {
+                Route<T> route = new Route<>(pattern, target, 0, null, regex, order);
+                regexRoutes.add(route);
+                exactRoute = null == exactRoute ? route : exactRoute;
+            }
+            // 与 isMatch 一致，正则表达式路由也可以完全匹配，无法编译时只能完全匹配
+            exactRoutes.put(pattern, null == exactRoute ? new Route<>(pattern, target, 0, new String[0], null, order) : exactRoute);
+            return this;
+        }
+        int wildcardIndex = pattern.indexOf(WILDCARD);
+        if (wildcardIndex < 0) {
+            exactRoutes.put(pattern, new Route<>(pattern, target, 0, new String[0], null, order));
+            return this;
+        }
+
+        // 第一个 * 之前的完整路径片段放入路径树
+        int offset = pattern.lastIndexOf('/', wildcardIndex) + 1;
+        Node<T> node = root;
+        int start = 0;
+        while (start < offset) {
+            int slash = pattern.indexOf('/', start);
+            node = node.getOrCreateChild(pattern.substring(start, slash));
+            start = slash + 1;
+        }
+        Route<T> route = new Route<>(pattern, target, offset,
+                StringUtils.splitPreserveAllTokens(pattern.substring(offset), '*'), null, order);
+        node.routes.add(route);
+        sortRoutes(node.routes);
+        addWildcardRawRoute(pattern, target, order);
+        return this;
+    }
+
+    /**
+     * 与 {@link PatternSet} 一致，通配符路由按原样编译，'.' 只表示 '.' 本身，无法编译时忽略（例如 *.js）
+     */
+    private void addWildcardRawRoute(String pattern, T target, int order) {
+        Pattern regex;
+        try {
+            regex = Pattern.compile(pattern.replace(".", "\\."));
+        } catch (PatternSyntaxException e) {
+            return;
+        }
+        wildcardRawRoutes.add(new Route<>(pattern, target, 0, null, regex, order));
+    }
+
+    private static <T> void sortRoutes(List<Route<T>> routes) {
+        Collections.sort(routes, new Comparator<Route<T>>() {
+            @Override
+            public int compare(Route<T> o1, Route<T> o2) {
+                int result = Integer.compare(o2.literalLength(), o1.literalLength());
+                return result != 0 ? result : Integer.compare(o1.order, o2.order);
+            }
+        });
+    }
+
+    /**
+     * 查找路由，完全匹配和通配符路由不会创建对象
+     *
+     * @param uri 要匹配的 uri
+     * @return 没有匹配的路由时返回 null
+     */
+    public Route<T> route(String uri) {
+        if (StringUtils.isEmpty(uri)) {
+            return null;
+        }
+        Route<T> route = exactRoutes.get(uri);
+        if (null == route && uri.indexOf('*') < 0) {
+            // 通配符不能匹配 *
+            route = findWildcardRoute(root, uri, 0);
+        }
+        if (null == route) {
+            route = findRegexRoute(regexRoutes, uri);
+        }
+        if (null == route) {
+            route = findRegexRoute(wildcardRawRoutes, uri);
+        }
+        return null == route ? defaultRoute : route;
+    }
+
+    private static <T> Route<T> findRegexRoute(List<Route<T>> routes, String uri) {
+        for (int i = 0; i < routes.size(); ++i) {
+            if (routes.get(i).regex.matcher(uri).matches()) {
+                return routes.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找路由以及匹配内容
+     *
+     * @param uri 要匹配的 uri
+     * @return 没有匹配的路由时返回 null
+     */
+    public RouteMatch<T> match(String uri) {
+        Route<T> route = route(uri);
+        if (null == route) {
+            return null;
+        }
+        if (uri.equals(route.pattern)) {
+            return new RouteMatch<>(route, Collections.<String>emptyList());
+        }
+        List<String> captures = new ArrayList<>();
+        if (null != route.regex) {
+            Matcher matcher = route.regex.matcher(uri);
+            matcher.matches();
+            for (int i = 1; i <= matcher.groupCount(); ++i) {
+                captures.add(matcher.group(i));
+            }
+        } else {
+            capture(route.parts, uri, route.offset, captures);
+        }
+        return new RouteMatch<>(route, Collections.unmodifiableList(captures));
+    }
+
+    /**
+     * 先查找更深的节点，再按优先级尝试当前节点的路由
+     */
+    private Route<T> findWildcardRoute(Node<T> node, String uri, int offset) {
+        int slash = uri.indexOf('/', offset);
+        if (slash >= 0) {
+            Node<T> child = node.child(uri, offset, slash);
+            if (null != child) {
+                Route<T> route = findWildcardRoute(child, uri, slash + 1);
+                if (null != route) {
+                    return route;
+                }
+            }
+        }
+        for (int i = 0; i < node.routes.size(); ++i) {
+            Route<T> route = node.routes.get(i);
+            if (indexOfParts(route.parts, uri, offset, null)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static void capture(String[] parts, String uri, int offset, List<String> captures) {
+        int[] positions = new int[parts.length * 2];
+        indexOfParts(parts, uri, offset, positions);
+        for (int i = 0; i < parts.length - 1; ++i) {
+            captures.add(uri.substring(positions[i * 2 + 1], positions[i * 2 + 2]));
+        }
+    }
+
+    /**
+     * 通配符匹配：首尾片段分别匹配开头和结尾，中间的片段从左到右依次查找最早出现的位置
+     *
+     * @param positions 不为 null 时记录每个片段的起止位置
+     */
+    private static boolean indexOfParts(String[] parts, String uri, int offset, int[] positions) {
+        String first = parts[0];
+        String last = parts[parts.length - 1];
+        int end = uri.length() - last.length();
+        if (end < offset + first.length() || !uri.startsWith(first, offset) || !uri.endsWith(last)) {
+            return false;
+        }
+        int position = offset + first.length();
+        if (null != positions) {
+            positions[0] = offset;
+            positions[1] = position;
+        }
+        for (int i = 1; i < parts.length - 1; ++i) {
+            String part = parts[i];
+            int index = uri.indexOf(part, position);
+            if (index < 0 || index + part.length() > end) {
+                return false;
+            }
+            position = index + part.length();
+            if (null != positions) {
+                positions[i * 2] = index;
+                positions[i * 2 + 1] = position;
+            }
+        }
+        if (null != positions) {
+            positions[parts.length * 2 - 2] = end;
+            positions[parts.length * 2 - 1] = uri.length();
+        }
+        return true;
+    }
+}
@@ -2,10 +2,10 @@ package com.yygame.common.utils;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @author yzy
@@ -15,11 +15,51 @@ public class UrlUtil {
     public static final String PROTOCOL_HTTPS = "https";
     public static final String PROTOCOL_HTTP = "http";
 
-    private static final String HTTP_URL_ENCODE_REGEX = "(?i)https?%.*";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 编码时不需要转义的 ASCII 字符，与 URLEncoder 一致： 字母、数字以及 . - * _
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    /**
+     * 十六进制字符 --> 数值，非十六进制字符为 -1
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; ++c) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['*'] = true;
+        UNRESERVED['_'] = true;
+
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; ++i) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+            HEX_VALUES[Character.toLowerCase(HEX_DIGITS[i])] = (byte) i;
+        }
+    }
 
     private UrlUtil() {
     }
 
+    /**
+     * 一次遍历解析 url，不使用正则表达式，需要多次读取 url 各部分时使用
+     *
+     * @param url 要解析的 url
+     * @return 返回解析结果，参考 {@link ParsedUrl}
+     */
+    public static ParsedUrl parseUrl(String url) {
+        return ParsedUrl.parse(url);
+    }
+
     /**
      * 根据参数名获取请求地址中的参数值
      *
@@ -57,21 +97,28 @@ public class UrlUtil {
         }
         Map<String, String> map = new HashMap<>(keyValues.length);
         for (String keyValue : keyValues) {
-            if (!keyValue.contains("=")) {
+            int index = keyValue.indexOf('=');
+            if (index < 0) {
                 map.put(keyValue, null);
             } else {
-                String[] array = keyValue.split("=");
-                if (array.length == 1) {
-                    map.put(array[0], "");
-                } else {
-                    map.put(array[0], array[1]);
-                }
+                // 参数值中可能包含 '='
+                map.put(keyValue.substring(0, index), keyValue.substring(index + 1));
             }
 
         }
         return map;
     }
 
+    /**
+     * 解析 url 中的查询参数，支持同名的多个参数，参数名和参数值在访问时才会解码
+     *
+     * @param url url 地址，没有解码的
+     * @return 返回参数视图，参考 {@link QueryParams}
+     */
+    public static QueryParams parseQueryParams(String url) {
+        return QueryParams.parse(url);
+    }
+
     /**
      * 解码 URL
      *
@@ -83,8 +130,8 @@ public class UrlUtil {
             if (StringUtils.isBlank(url)) {
                 return "";
             }
-            while (url.matches(HTTP_URL_ENCODE_REGEX)) {
-                url = URLDecoder.decode(url, "UTF-8");
+            while (isEncodedHttpUrl(url)) {
+                url = decodeComponent(url);
             }
             return url;
         } catch (Exception e) {
@@ -92,6 +139,20 @@ public class UrlUtil {
         }
     }
 
+    /**
+     * 是否是编码过的 http(s) 地址，即 http% 或者 https% 开头，忽略大小写
+     */
+    private static boolean isEncodedHttpUrl(String url) {
+        int length = PROTOCOL_HTTP.length();
+        if (!url.regionMatches(true, 0, PROTOCOL_HTTP, 0, length)) {
+            return false;
+        }
+        if (url.length() > length && (url.charAt(length) == 's' || url.charAt(length) == 'S')) {
+            ++length;
+        }
+        return url.length() > length && url.charAt(length) == '%';
+    }
+
     /**
      * 解码 参数值
      *
@@ -104,10 +165,11 @@ public class UrlUtil {
                 return "";
             }
             String curVal = paramValue;
-            String nextVal = URLDecoder.decode(curVal, "UTF-8");
-            while (!curVal.equals(nextVal) && paramValue.contains("%")) {
+            String nextVal = decodeComponent(curVal);
+            // 没有变化时 decodeComponent 返回同一个对象
+            while (curVal != nextVal && paramValue.indexOf('%') >= 0) {
                 curVal = nextVal;
-                nextVal = URLDecoder.decode(curVal, "UTF-8");
+                nextVal = decodeComponent(curVal);
             }
             return nextVal;
         } catch (Exception e) {
@@ -133,17 +195,13 @@ public class UrlUtil {
      * @return 返回encode指定次数后的url
      */
     public static String encodeUrl(String url, int times) {
-        try {
-            String value = decodeUrl(url);
-            int encodeTimes = 0;
-            while (encodeTimes < times) {
-                value = URLEncoder.encode(value, "UTF-8");
-                encodeTimes++;
-            }
-            return value;
-        } catch (Exception e) {
-            return url;
+        String value = decodeUrl(url);
+        int encodeTimes = 0;
+        while (encodeTimes < times) {
+            value = encodeComponent(value);
+            encodeTimes++;
         }
+        return value;
     }
 
     /**
@@ -164,17 +222,202 @@ public class UrlUtil {
      * @return 返回encode指定次数后的 参数值
      */
     public static String encodeParamValue(String paramValue, int times) {
-        try {
-            String value = decodeParamValue(paramValue);
-            int encodeTimes = 0;
-            while (encodeTimes < times) {
-                value = URLEncoder.encode(value, "UTF-8");
-                encodeTimes++;
+        String value = decodeParamValue(paramValue);
+        int encodeTimes = 0;
+        while (encodeTimes < times) {
+            value = encodeComponent(value);
+            encodeTimes++;
+        }
+        return value;
+    }
+
+    /**
+     * 按 application/x-www-form-urlencoded 格式编码一次，结果与 URLEncoder.encode(value, "UTF-8") 一致
+     *
+     * @param value 要编码的值
+     * @return 不需要编码时返回同一个对象
+     */
+    public static String encodeComponent(String value) {
+        if (null == value) {
+            return null;
+        }
+        int length = value.length();
+        int index = 0;
+        while (index < length && isUnreserved(value.charAt(index))) {
+            ++index;
+        }
+        if (index == length) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(value, 0, index);
+        appendEncoded(builder, value, index, length);
+        return builder.toString();
+    }
+
+    /**
+     * 编码并追加到 builder，可以复用同一个 builder 避免创建中间字符串
+     *
+     * @param builder 输出
+     * @param value   要编码的值
+     * @return 返回 builder
+     */
+    public static StringBuilder appendEncoded(StringBuilder builder, CharSequence value) {
+        appendEncoded(builder, value, 0, value.length());
+        return builder;
+    }
+
+    private static void appendEncoded(StringBuilder builder, CharSequence value, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    builder.append(c);
+                } else if (c == ' ') {
+                    builder.append('+');
+                } else {
+                    appendEscaped(builder, c);
+                }
+            } else if (c < 0x800) {
+                appendEscaped(builder, 0xC0 | (c >> 6));
+                appendEscaped(builder, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(builder, 0xF0 | (codePoint >> 18));
+                appendEscaped(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscaped(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscaped(builder, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符按 '?' 编码，与 URLEncoder 一致
+                appendEscaped(builder, '?');
+            } else {
+                appendEscaped(builder, 0xE0 | (c >> 12));
+                appendEscaped(builder, 0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(builder, 0x80 | (c & 0x3F));
             }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, int b) {
+        builder.append('%').append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+    }
+
+    private static boolean isUnreserved(char c) {
+        return c < 0x80 && UNRESERVED[c];
+    }
+
+    /**
+     * 按 application/x-www-form-urlencoded 格式解码一次， '+' 解码为空格，合法的输入与 URLDecoder.decode(value, "UTF-8") 结果一致；
+     * 与 URLDecoder 不同的是， '%' 之后必须是两位十六进制数字，URLDecoder 通过 Integer.parseInt 接受的 %+B、%-1 等写法会被视为非法
+     *
+     * @param value 要解码的值
+     * @return 不包含 '%' 和 '+' 时返回同一个对象
+     * @throws IllegalArgumentException '%' 之后不是两位十六进制数字
+     */
+    public static String decodeComponent(String value) {
+        if (null == value) {
+            return null;
+        }
+        int length = value.length();
+        int index = 0;
+        while (index < length && value.charAt(index) != '%' && value.charAt(index) != '+') {
+            ++index;
+        }
+        if (index == length) {
             return value;
-        } catch (UnsupportedEncodingException e) {
-            return paramValue;
         }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(value, 0, index);
+        appendDecoded(builder, value, index, length);
+        return builder.toString();
+    }
+
+    /**
+     * 解码并追加到 builder，可以复用同一个 builder 避免创建中间字符串
+     *
+     * @param builder 输出
+     * @param value   要解码的值
+     * @return 返回 builder
+     * @throws IllegalArgumentException '%' 之后不是两位十六进制数
+     */
+    public static StringBuilder appendDecoded(StringBuilder builder, CharSequence value) {
+        appendDecoded(builder, value, 0, value.length());
+        return builder;
+    }
+
+    static void appendDecoded(StringBuilder builder, CharSequence value, int start, int end) {
+        byte[] bytes = null;
+        int i = start;
+        while (i < end) {
+            char c = value.charAt(i);
+            if (c == '+') {
+                builder.append(' ');
+                ++i;
+            } else if (c == '%') {
+                // 连续的 %XX 作为一段 UTF-8 字节解码
+                if (null == bytes) {
+                    bytes = new byte[(end - i) / 3];
+                }
+                int count = 0;
+                while (i < end && value.charAt(i) == '%') {
+                    int high = i + 2 < end ? hexValue(value.charAt(i + 1)) : -1;
+                    int low = high < 0 ? -1 : hexValue(value.charAt(i + 2));
+                    if (low < 0) {
+                        throw new IllegalArgumentException("不合法的编码: " + value.subSequence(i, Math.min(i + 3, end)));
+                    }
+                    bytes[count++] = (byte) ((high << 4) | low);
+                    i += 3;
+                }
+                appendUtf8(builder, bytes, count);
+            } else {
+                builder.append(c);
+                ++i;
+            }
+        }
+    }
+
+    /**
+     * 解码 UTF-8 字节，全部是 ASCII 时不创建字符串
+     */
+    private static void appendUtf8(StringBuilder builder, byte[] bytes, int count) {
+        for (int i = 0; i < count; ++i) {
+            if (bytes[i] < 0) {
+                builder.append(new String(bytes, i, count - i, StandardCharsets.UTF_8));
+                return;
+            }
+            builder.append((char) bytes[i]);
+        }
+    }
+
+    private static int hexValue(char c) {
+        return c < 0x80 ? HEX_VALUES[c] : -1;
+    }
+
+    /**
+     * 一次遍历判断是否是已经编码过的值：至少包含一个合法的 %XX，并且没有需要编码的字符
+     *
+     * @param value 要判断的值
+     * @return 返回是否已经编码
+     */
+    public static boolean isEncoded(CharSequence value) {
+        if (null == value) {
+            return false;
+        }
+        boolean escaped = false;
+        int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= length || hexValue(value.charAt(i + 1)) < 0 || hexValue(value.charAt(i + 2)) < 0) {
+                    return false;
+                }
+                escaped = true;
+                i += 2;
+            } else if (c != '+' && !isUnreserved(c)) {
+                return false;
+            }
+        }
+        return escaped;
     }
 
     /**
@@ -210,9 +453,11 @@ public class UrlUtil {
             return replaceUrlParam(array[0], key, newEncodeValue) + array[1];
         }
 
-        String regex = "(^.*[\\?&]?)(" + key + "=?[^\\?&]*)([\\?&]?.*$)";
+        // 参数名和参数值可能包含正则表达式的特殊字符
+        String quotedKey = Pattern.quote(key);
+        String regex = "(^.*[\\?&]?)(" + quotedKey + "=?[^\\?&]*)([\\?&]?.*$)";
 
-        return url.replaceAll(regex, "$1" + key + "=" + newEncodeValue + "$3");
+        return url.replaceAll(regex, "$1" + Matcher.quoteReplacement(key + "=" + newEncodeValue) + "$3");
     }
 
     /**
@@ -231,7 +476,7 @@ public class UrlUtil {
         }
 
         // 包含参数，替换
-        if (url.matches(".*[\\?&]?" + key + "=?[\\?&]?.*$")) {
+        if (url.matches(".*[\\?&]?" + Pattern.quote(key) + "=?[\\?&]?.*$")) {
             return replaceUrlParam(url, key, newEncodeValue);
         }
 
@@ -0,0 +1,128 @@
+package com.yygame.common.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 直接读取 zip/jar 文件的中央目录，按条目名的原始字节过滤， 只为满足条件的条目创建字符串
+ * <p>
+ * 不支持 zip64 以及分卷文件，此时返回 null， 调用方需要使用 JarFile 遍历
+ *
+ * @author yzy
+ */
+final class ZipCentralDirectory {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int ENTRY_SIGNATURE = 0x02014b50;
+
+    private static final int END_HEADER_SIZE = 22;
+
+    private static final int ENTRY_HEADER_SIZE = 46;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    /**
+     * 条目名过滤器
+     */
+    interface EntryFilter {
+
+        /**
+         * @param name   中央目录的数据
+         * @param offset 条目名的起始位置
+         * @param length 条目名的字节数
+         * @return 返回是否接受
+         */
+        boolean accept(byte[] name, int offset, int length);
+    }
+
+    private ZipCentralDirectory() {
+    }
+
+    /**
+     * 获取满足条件的条目名
+     *
+     * @param file   zip 文件
+     * @param filter 条目名过滤器
+     * @return 文件格式不支持时返回 null
+     * @throws IOException 读取文件失败
+     */
+    static List<String> listEntryNames(File file, EntryFilter filter) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long fileLength = randomAccessFile.length();
+            if (fileLength < END_HEADER_SIZE) {
+                return null;
+            }
+
+            // 从文件尾部查找中央目录结束标记，结束标记后面可能有注释
+            int tailLength = (int) Math.min(fileLength, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+            byte[] tail = new byte[tailLength];
+            randomAccessFile.seek(fileLength - tailLength);
+            randomAccessFile.readFully(tail);
+
+            int endIndex = -1;
+            for (int i = tailLength - END_HEADER_SIZE; i >= 0; --i) {
+                if (readInt(tail, i) == END_SIGNATURE) {
+                    endIndex = i;
+                    break;
+                }
+            }
+            if (endIndex < 0) {
+                return null;
+            }
+
+            int diskNumber = readUnsignedShort(tail, endIndex + 4);
+            int entryCount = readUnsignedShort(tail, endIndex + 10);
+            long directorySize = readUnsignedInt(tail, endIndex + 12);
+            if (diskNumber != 0 || entryCount == 0xFFFF || directorySize == 0xFFFFFFFFL) {
+                return null;
+            }
+
+            // 不使用记录的偏移量，兼容文件头部附加了其他数据的可执行 jar 包
+            long directoryStart = fileLength - tailLength + endIndex - directorySize;
+            if (directoryStart < 0 || directorySize > Integer.MAX_VALUE) {
+                return null;
+            }
+            byte[] directory = new byte[(int) directorySize];
+            randomAccessFile.seek(directoryStart);
+            randomAccessFile.readFully(directory);
+
+            List<String> names = new ArrayList<>();
+            int index = 0;
+            for (int i = 0; i < entryCount; ++i) {
+                if (index + ENTRY_HEADER_SIZE > directory.length || readInt(directory, index) != ENTRY_SIGNATURE) {
+                    return null;
+                }
+                int nameLength = readUnsignedShort(directory, index + 28);
+                int extraLength = readUnsignedShort(directory, index + 30);
+                int commentLength = readUnsignedShort(directory, index + 32);
+                int nameOffset = index + ENTRY_HEADER_SIZE;
+                if (nameOffset + nameLength > directory.length) {
+                    return null;
+                }
+                if (filter.accept(directory, nameOffset, nameLength)) {
+                    names.add(new String(directory, nameOffset, nameLength, StandardCharsets.UTF_8));
+                }
+                index = nameOffset + nameLength + extraLength + commentLength;
+            }
+            return names;
+        }
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF) | ((bytes[index + 1] & 0xFF) << 8);
+    }
+
+    private static int readInt(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF) | ((bytes[index + 1] & 0xFF) << 8)
+                | ((bytes[index + 2] & 0xFF) << 16) | ((bytes[index + 3] & 0xFF) << 24);
+    }
+
+    private static long readUnsignedInt(byte[] bytes, int index) {
+        return readInt(bytes, index) & 0xFFFFFFFFL;
+    }
+}
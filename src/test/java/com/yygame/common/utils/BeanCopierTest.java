@@ -0,0 +1,138 @@
+package com.yygame.common.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yzy
+ */
+public class BeanCopierTest {
+
+    public static class UserDto {
+        private String id;
+        private String name;
+        private Integer age;
+        private String enabled;
+        private String ignored;
+    }
+
+    public static class BaseEntity {
+        private long id;
+    }
+
+    public static class UserEntity extends BaseEntity {
+        private String name;
+        private int age;
+        private boolean enabled;
+        private List<String> ignored;
+    }
+
+    @Test
+    public void testCopy() {
+        UserDto dto = new UserDto();
+        dto.id = "100";
+        dto.name = "yzy";
+        dto.age = 18;
+        dto.enabled = "yes";
+        dto.ignored = "ignored";
+
+        BeanCopier<UserDto, UserEntity> copier = BeanCopier.create(UserDto.class, UserEntity.class);
+        assertSame(copier, BeanCopier.create(UserDto.class, UserEntity.class));
+        assertFalse(copier.getPropertyNames().contains("ignored"));
+
+        UserEntity entity = copier.copy(dto);
+        assertEquals(100L, ((BaseEntity) entity).id);
+        assertEquals("yzy", entity.name);
+        assertEquals(18, entity.age);
+        assertTrue(entity.enabled);
+        assertNull(entity.ignored);
+    }
+
+    @Test
+    public void testCopyNullToPrimitive() {
+        UserEntity entity = new UserEntity();
+        entity.age = 20;
+        BeanCopier.copyProperties(new UserDto(), entity);
+        assertEquals(20, entity.age);
+        assertNull(entity.name);
+    }
+
+    @Test
+    public void testCopyList() {
+        UserEntity entity = new UserEntity();
+        entity.name = "yzy";
+        entity.age = 18;
+
+        List<UserDto> dtoList = BeanCopier.create(UserEntity.class, UserDto.class).copyList(Arrays.asList(entity, null));
+        assertEquals(2, dtoList.size());
+        assertEquals("yzy", dtoList.get(0).name);
+        assertEquals(Integer.valueOf(18), dtoList.get(0).age);
+        assertEquals("0", dtoList.get(0).id);
+        assertEquals("false", dtoList.get(0).enabled);
+        assertNull(dtoList.get(1));
+    }
+
+    /**
+     * 只加载 UserDto 的子类加载器，模拟插件中的类
+     */
+    private static class ChildClassLoader extends ClassLoader {
+
+        private ChildClassLoader() {
+            super(BeanCopierTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(UserDto.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (null == clazz) {
+                    try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        int count;
+                        while ((count = inputStream.read(buffer)) > 0) {
+                            outputStream.write(buffer, 0, count);
+                        }
+                        byte[] bytes = outputStream.toByteArray();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+
+    @Test
+    public void testCopyAcrossClassLoaders() throws Exception {
+        Class<?> childDtoClass = new ChildClassLoader().loadClass(UserDto.class.getName());
+        assertNotSame(UserDto.class, childDtoClass);
+
+        Object dto = childDtoClass.newInstance();
+        Field nameField = childDtoClass.getDeclaredField("name");
+        nameField.setAccessible(true);
+        nameField.set(dto, "yzy");
+
+        BeanCopier<?, UserEntity> copier = BeanCopier.create(childDtoClass, UserEntity.class);
+        assertSame(copier, BeanCopier.create(childDtoClass, UserEntity.class));
+        UserEntity entity = new UserEntity();
+        BeanCopier.copyProperties(dto, entity);
+        assertEquals("yzy", entity.name);
+
+        Object copied = BeanCopier.create(UserEntity.class, childDtoClass).copy(entity);
+        assertEquals("yzy", nameField.get(copied));
+    }
+}
@@ -0,0 +1,151 @@
+package com.yygame.common.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yzy
+ */
+public class BeanMapperTest {
+
+    public static class Config {
+        private String host;
+        private int port;
+        private boolean enabled;
+        private String readOnly = "readOnly";
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getReadOnly() {
+            return readOnly;
+        }
+
+        public void reset() {
+            this.host = null;
+        }
+    }
+
+    public static class WrapperConfig {
+        private String name;
+        private Boolean enabled;
+        private int timeout;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(String timeout) {
+            this.timeout = Integer.parseInt(timeout) * 1000;
+        }
+
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    @Test
+    public void testFilterUnRecordedField() {
+        Map<String, String> configMap = new HashMap<>();
+        configMap.put("host", "127.0.0.1");
+        configMap.put("port", "8080");
+        configMap.put("enabled", "true");
+        configMap.put("readOnly", "x");
+        configMap.put("re", "x");
+        configMap.put("class", "x");
+
+        CommonUtil.filterUnRecordedField(configMap, Config.class);
+        assertEquals(3, configMap.size());
+        assertTrue(configMap.containsKey("host"));
+        assertTrue(configMap.containsKey("port"));
+        assertTrue(configMap.containsKey("enabled"));
+    }
+
+    @Test
+    public void testToMapAndFromMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("host", "127.0.0.1");
+        map.put("port", "8080");
+        map.put("enabled", "yes");
+        map.put("readOnly", "x");
+        map.put("unknown", "x");
+
+        Config config = BeanMapper.mapToBean(map, Config.class);
+        assertEquals("127.0.0.1", config.getHost());
+        assertEquals(8080, config.getPort());
+        assertTrue(config.isEnabled());
+        assertEquals("readOnly", config.getReadOnly());
+
+        Map<String, Object> result = BeanMapper.beanToMap(config);
+        assertEquals(4, result.size());
+        assertEquals("127.0.0.1", result.get("host"));
+        assertEquals(8080, result.get("port"));
+        assertEquals(true, result.get("enabled"));
+        assertEquals("readOnly", result.get("readOnly"));
+    }
+
+    @Test
+    public void testBooleanWrapperAndOverloadedSetter() {
+        Map<String, String> configMap = new HashMap<>();
+        configMap.put("name", "x");
+        configMap.put("enabled", "true");
+        configMap.put("other", "x");
+        CommonUtil.filterUnRecordedField(configMap, WrapperConfig.class);
+        assertEquals(2, configMap.size());
+        assertTrue(configMap.containsKey("enabled"));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "x");
+        map.put("enabled", "true");
+        map.put("timeout", "30");
+        WrapperConfig config = BeanMapper.mapToBean(map, WrapperConfig.class);
+        assertEquals(Boolean.TRUE, config.isEnabled());
+        // 使用与 getter 返回类型相同的 setTimeout(int)
+        assertEquals(30, config.getTimeout());
+
+        Map<String, Object> result = BeanMapper.beanToMap(config);
+        assertEquals(Boolean.TRUE, result.get("enabled"));
+        assertEquals(30, result.get("timeout"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.yygame.common.utils;
+
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yzy
+ */
+public class ClassIndexProcessorTest {
+
+    private static JavaFileObject source(final String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    @Test
+    public void testGenerateAndScanIndex() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        File outputDir = Files.createTempDirectory("class-index").toFile();
+
+        List<JavaFileObject> sources = Arrays.asList(
+                source("demo.Plugin", "package demo; @com.yygame.common.utils.Indexed @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface Plugin {}"),
+                source("demo.Service", "package demo; @com.yygame.common.utils.Indexed public interface Service {}"),
+                source("demo.a.MyPlugin", "package demo.a; @demo.Plugin public class MyPlugin {}"),
+                source("demo.b.ServiceImpl", "package demo.b; public class ServiceImpl implements demo.Service { public static class Inner implements demo.Service {} }"),
+                source("demo.b.Other", "package demo.b; public class Other {}")
+        );
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-classpath", System.getProperty("java.class.path")), null, sources);
+        task.setProcessors(Arrays.asList(new ClassIndexProcessor()));
+        assertTrue(task.call());
+
+        File indexFile = new File(outputDir, ClassIndex.INDEX_LOCATION);
+        String content = new String(Files.readAllBytes(indexFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.contains("demo.a.MyPlugin=demo.Plugin"));
+        assertTrue(content.contains("demo.b.ServiceImpl=demo.Service"));
+        assertTrue(content.contains("demo.b.ServiceImpl$Inner=demo.Service"));
+        assertFalse(content.contains("demo.b.Other"));
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            Class<?> serviceClass = classLoader.loadClass("demo.Service");
+            Set<Class<?>> classes = ClassUtil.scan(serviceClass, "demo");
+            assertEquals(3, classes.size());
+            assertEquals(2, ClassUtil.scan(serviceClass, false, "demo.b").size());
+            assertTrue(ClassUtil.scan(serviceClass, "demo.a").isEmpty());
+
+            @SuppressWarnings("unchecked")
+            Class<? extends java.lang.annotation.Annotation> pluginClass = (Class<? extends java.lang.annotation.Annotation>) classLoader.loadClass("demo.Plugin");
+            classes = ClassUtil.scan("demo", pluginClass);
+            assertEquals(1, classes.size());
+            assertEquals("demo.a.MyPlugin", classes.iterator().next().getName());
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @Test
+    public void testInheritedAnnotation() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        File outputDir = Files.createTempDirectory("class-index").toFile();
+
+        List<JavaFileObject> sources = Arrays.asList(
+                source("inherit.Plugin", "package inherit; @com.yygame.common.utils.Indexed @java.lang.annotation.Inherited "
+                        + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface Plugin {}"),
+                source("inherit.Base", "package inherit; @Plugin public class Base {}"),
+                source("inherit.sub.Child", "package inherit.sub; public class Child extends inherit.Base {}"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-classpath", System.getProperty("java.class.path")), null, sources);
+        task.setProcessors(Arrays.asList(new ClassIndexProcessor()));
+        assertTrue(task.call());
+
+        String content = new String(Files.readAllBytes(new File(outputDir, ClassIndex.INDEX_LOCATION).toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.contains("inherit.Base=inherit.Plugin"));
+        assertTrue(content.contains("inherit.sub.Child=inherit.Plugin"));
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends java.lang.annotation.Annotation> pluginClass = (Class<? extends java.lang.annotation.Annotation>) classLoader.loadClass("inherit.Plugin");
+            // 与不使用索引扫描的结果一致
+            assertEquals(2, ClassUtil.scan("inherit", pluginClass).size());
+            System.setProperty(ClassIndex.IGNORE_PROPERTY, "true");
+            try {
+                assertEquals(2, ClassUtil.scan("inherit", pluginClass).size());
+            } finally {
+                System.clearProperty(ClassIndex.IGNORE_PROPERTY);
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    /**
+     * 增量编译保留已有索引，没有索引文件的类路径根仍然会被扫描
+     */
+    @Test
+    public void testIncrementalIndexAndUnindexedRoot() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        File outputDir = Files.createTempDirectory("class-index").toFile();
+        File plainDir = Files.createTempDirectory("class-plain").toFile();
+        String classpath = System.getProperty("java.class.path");
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-classpath", classpath), null, Arrays.asList(
+                        source("inc.Service", "package inc; @com.yygame.common.utils.Indexed public interface Service {}"),
+                        source("inc.a.First", "package inc.a; public class First implements inc.Service {}"),
+                        source("inc.a.Removed", "package inc.a; public class Removed implements inc.Service {}")));
+        task.setProcessors(Arrays.asList(new ClassIndexProcessor()));
+        assertTrue(task.call());
+
+        // 增量编译：只编译新增的类，inc.a.Removed 的 class 文件被删除
+        assertTrue(new File(outputDir, "inc/a/Removed.class").delete());
+        task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-classpath", outputDir.getPath() + File.pathSeparator + classpath), null,
+                Arrays.asList(source("inc.b.Second", "package inc.b; public class Second implements inc.Service {}")));
+        task.setProcessors(Arrays.asList(new ClassIndexProcessor()));
+        assertTrue(task.call());
+
+        String content = new String(Files.readAllBytes(new File(outputDir, ClassIndex.INDEX_LOCATION).toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.contains("inc.a.First=inc.Service"));
+        assertTrue(content.contains("inc.b.Second=inc.Service"));
+        assertFalse(content.contains("inc.a.Removed"));
+
+        // 没有使用处理器编译的类路径根
+        task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", plainDir.getPath(), "-proc:none", "-classpath", outputDir.getPath() + File.pathSeparator + classpath), null,
+                Arrays.asList(source("inc.c.Third", "package inc.c; public class Third implements inc.Service {}")));
+        assertTrue(task.call());
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL(), plainDir.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            Class<?> serviceClass = classLoader.loadClass("inc.Service");
+            Set<Class<?>> classes = ClassUtil.scan(serviceClass, "inc");
+            assertEquals(4, classes.size());
+            assertTrue(classes.contains(classLoader.loadClass("inc.c.Third")));
+            assertEquals(1, ClassUtil.scan(serviceClass, "inc.c").size());
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package com.yygame.common.utils;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 类扫描测试，使用临时生成的类路径： 目录 classes 下的 synthetic.dir 包，以及 jar 包中的 synthetic.jar 包
+ *
+ * @author yzy
+ */
+public class ClassScannerTest {
+
+    /**
+     * 生成的类路径
+     */
+    private static class SyntheticClasspath {
+        private File classesDir;
+        private File jarFile;
+        private URLClassLoader classLoader;
+    }
+
+    private static JavaFileObject source(final String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /**
+     * 生成类路径，每个包都有一个接口 Service， 以及 classCount 个类分布在 packageCount 个子包中， 其中偶数编号的类实现了 Service
+     */
+    private static SyntheticClasspath createClasspath(int packageCount, int classCount) throws IOException {
+        File rootDir = Files.createTempDirectory("class-scanner").toFile();
+        File classesDir = new File(rootDir, "classes");
+        File jarClassesDir = new File(rootDir, "jar-classes");
+        classesDir.mkdirs();
+        jarClassesDir.mkdirs();
+
+        compile(classesDir, createSources("synthetic.dir", packageCount, classCount));
+        compile(jarClassesDir, createSources("synthetic.jar", packageCount, classCount));
+
+        File jarFile = new File(rootDir, "synthetic.jar");
+        try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(jarFile))) {
+            addToJar(outputStream, jarClassesDir, "");
+        }
+
+        SyntheticClasspath classpath = new SyntheticClasspath();
+        classpath.classesDir = classesDir;
+        classpath.jarFile = jarFile;
+        classpath.classLoader = new URLClassLoader(new URL[]{classesDir.toURI().toURL(), jarFile.toURI().toURL()}, ClassScannerTest.class.getClassLoader());
+        return classpath;
+    }
+
+    private static List<JavaFileObject> createSources(String basePackage, int packageCount, int classCount) {
+        List<JavaFileObject> sources = new ArrayList<>();
+        sources.add(source(basePackage + ".Service", "package " + basePackage + "; public interface Service {}"));
+        for (int i = 0; i < classCount; ++i) {
+            String packageName = basePackage + ".p" + (i % packageCount);
+            String className = "C" + i;
+            String implement = i % 2 == 0 ? " implements " + basePackage + ".Service" : "";
+            sources.add(source(packageName + "." + className, "package " + packageName + "; public class " + className + implement + " {}"));
+        }
+        return sources;
+    }
+
+    private static void compile(File outputDir, List<JavaFileObject> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-proc:none"), null, sources);
+        assertTrue(task.call());
+    }
+
+    private static void addToJar(JarOutputStream outputStream, File dir, String prefix) throws IOException {
+        File[] files = dir.listFiles();
+        if (null == files) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                outputStream.putNextEntry(new JarEntry(prefix + file.getName() + "/"));
+                outputStream.closeEntry();
+                addToJar(outputStream, file, prefix + file.getName() + "/");
+            } else {
+                outputStream.putNextEntry(new JarEntry(prefix + file.getName()));
+                outputStream.write(Files.readAllBytes(file.toPath()));
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+    private static ClassScanner newScanner(SyntheticClasspath classpath, String superClassName) throws ClassNotFoundException {
+        final Class<?> superClass = classpath.classLoader.loadClass(superClassName);
+        return new ClassScanner()
+                .setClassLoader(classpath.classLoader)
+                .setAccepter(new ClassUtil.ClassAccept() {
+                    @Override
+                    public boolean accept(Class<?> clazz) {
+                        return superClass.isAssignableFrom(clazz);
+                    }
+                });
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        SyntheticClasspath classpath = createClasspath(4, 40);
+
+        ClassScanner scanner = newScanner(classpath, "synthetic.dir.Service");
+        // 20 个实现类 + 接口本身
+        assertEquals(21, scanner.scan("synthetic.dir").size());
+        assertEquals(10, scanner.scan("synthetic.dir.p0").size());
+        assertEquals(1, scanner.setScanSubPackage(false).scan("synthetic.dir").size());
+        assertEquals(11, scanner.scan("synthetic.dir", "synthetic.dir.p2").size());
+
+        scanner = newScanner(classpath, "synthetic.jar.Service");
+        assertEquals(21, scanner.scan("synthetic.jar").size());
+        assertEquals(1, scanner.setScanSubPackage(false).scan("synthetic.jar").size());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        SyntheticClasspath classpath = createClasspath(4, 40);
+        RecordingClassLoader classLoader = new RecordingClassLoader(classpath.classLoader.getURLs());
+        final Class<?> superClass = classLoader.loadClass("synthetic.jar.Service");
+        ClassScanner scanner = new ClassScanner()
+                .setClassLoader(classLoader)
+                .setAccepter(new ClassUtil.ClassAccept() {
+                    @Override
+                    public boolean accept(Class<?> clazz) {
+                        return superClass.isAssignableFrom(clazz) && !clazz.isInterface();
+                    }
+                });
+
+        assertTrue(scanner.stream("synthetic.jar").findFirst().isPresent());
+        // 找到第一个类后停止加载
+        assertTrue(classLoader.loadedClassNames.size() < 10);
+
+        assertEquals(20, scanner.stream("synthetic.jar", "synthetic.jar.p0").count());
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            assertEquals(21, ClassUtil.stream(superClass, "synthetic.jar").count());
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+        assertEquals(20, scanner.setParallelism(4).stream("synthetic.jar").count());
+
+        final List<Class<?>> visited = Collections.synchronizedList(new ArrayList<Class<?>>());
+        ClassUtil.ClassVisitor visitor = new ClassUtil.ClassVisitor() {
+            @Override
+            public boolean visit(Class<?> clazz) {
+                visited.add(clazz);
+                return visited.size() < 3;
+            }
+        };
+        scanner.setParallelism(1).scan(visitor, "synthetic.jar");
+        assertEquals(3, visited.size());
+
+        visited.clear();
+        scanner.setParallelism(4).scan(visitor, "synthetic.jar");
+        assertTrue(visited.size() >= 3 && visited.size() < 20);
+    }
+
+    @Test
+    public void testScanMultiplePackages() throws Exception {
+        SyntheticClasspath classpath = createClasspath(4, 40);
+
+        ClassScanner scanner = newScanner(classpath, "synthetic.jar.Service");
+        assertEquals(20, scanner.scan("synthetic.jar.p0", "synthetic.jar.p1", "synthetic.jar.p2").size());
+        assertEquals(21, scanner.scan("synthetic.jar", "synthetic.jar.p0").size());
+        // 包名按分隔符匹配，不是字符串前缀
+        assertEquals(0, scanner.scan("synthetic.ja").size());
+        assertEquals(11, scanner.setScanSubPackage(false).scan("synthetic.jar", "synthetic.jar.p2").size());
+
+        scanner = newScanner(classpath, "synthetic.dir.Service");
+        assertEquals(21, scanner.scan("synthetic.dir", "synthetic.dir.p0", "synthetic.dir.p1").size());
+    }
+
+    @Test
+    public void testParallelScan() throws Exception {
+        SyntheticClasspath classpath = createClasspath(8, 400);
+
+        Set<Class<?>> sequential = newScanner(classpath, "synthetic.jar.Service").scan("synthetic.jar");
+        Set<Class<?>> parallel = newScanner(classpath, "synthetic.jar.Service").setParallelism(4).scan("synthetic.jar");
+        assertEquals(201, parallel.size());
+        assertEquals(sequential, parallel);
+
+        sequential = newScanner(classpath, "synthetic.dir.Service").scan("synthetic.dir");
+        parallel = newScanner(classpath, "synthetic.dir.Service").setParallelism(4).scan("synthetic.dir");
+        assertEquals(201, parallel.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testListZipEntryNames() throws Exception {
+        SyntheticClasspath classpath = createClasspath(2, 10);
+
+        List<String> expectedNames = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(classpath.jarFile)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                expectedNames.add(entries.nextElement().getName());
+            }
+        }
+
+        List<String> names = ZipCentralDirectory.listEntryNames(classpath.jarFile, new ZipCentralDirectory.EntryFilter() {
+            @Override
+            public boolean accept(byte[] name, int offset, int length) {
+                return true;
+            }
+        });
+        assertEquals(expectedNames, names);
+    }
+
+    /**
+     * 模拟 Spring Boot 的类加载器，包对应的资源位于 fat jar 中
+     */
+    private static class FatJarClassLoader extends ClassLoader {
+
+        private final File fatJar;
+
+        FatJarClassLoader(File fatJar, ClassLoader parent) {
+            super(parent);
+            this.fatJar = fatJar;
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            String fatJarUrl = "jar:" + fatJar.toURI() + "!/";
+            if (name.startsWith("synthetic/jar")) {
+                return Collections.enumeration(Collections.singletonList(new URL(fatJarUrl + "BOOT-INF/lib/synthetic.jar!/" + name)));
+            }
+            if (name.startsWith("synthetic/dir")) {
+                return Collections.enumeration(Collections.singletonList(new URL(fatJarUrl + "BOOT-INF/classes!/" + name)));
+            }
+            return Collections.emptyEnumeration();
+        }
+    }
+
+    @Test
+    public void testScanFatJar() throws Exception {
+        SyntheticClasspath classpath = createClasspath(4, 40);
+
+        File fatJar = new File(classpath.jarFile.getParentFile(), "fat app.jar");
+        try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(fatJar))) {
+            outputStream.putNextEntry(new JarEntry("BOOT-INF/lib/synthetic.jar"));
+            outputStream.write(Files.readAllBytes(classpath.jarFile.toPath()));
+            outputStream.closeEntry();
+            addToJar(outputStream, classpath.classesDir, "BOOT-INF/classes/");
+        }
+
+        FatJarClassLoader classLoader = new FatJarClassLoader(fatJar, classpath.classLoader);
+        final Class<?> jarService = classpath.classLoader.loadClass("synthetic.jar.Service");
+        ClassScanner scanner = new ClassScanner()
+                .setClassLoader(classLoader)
+                .setAccepter(new ClassUtil.ClassAccept() {
+                    @Override
+                    public boolean accept(Class<?> clazz) {
+                        return jarService.isAssignableFrom(clazz);
+                    }
+                });
+        assertEquals(21, scanner.scan("synthetic.jar").size());
+        assertEquals(10, scanner.setParallelism(4).scan("synthetic.jar.p0", "synthetic.jar.p1").size());
+
+        final String dirServiceName = "synthetic.dir.Service";
+        Set<Class<?>> classSet = new ClassScanner()
+                .setClassLoader(classLoader)
+                .setMetadataAccepter(new ClassUtil.ClassMetadataAccept() {
+                    @Override
+                    public boolean accept(ClassMetadata metadata) {
+                        return metadata.isConcrete() && metadata.isAssignableTo(dirServiceName);
+                    }
+                })
+                .setParallelism(4)
+                .scan("synthetic.dir", "synthetic.jar");
+        assertEquals(20, classSet.size());
+    }
+
+    /**
+     * 记录加载过的类
+     */
+    private static class RecordingClassLoader extends URLClassLoader {
+
+        private final Set<String> loadedClassNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        RecordingClassLoader(URL[] urls) {
+            super(urls, ClassScannerTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loadedClassNames.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private static File createMetadataClasspath() throws IOException {
+        File rootDir = Files.createTempDirectory("class-metadata").toFile();
+        File classesDir = new File(rootDir, "classes");
+        File jarClassesDir = new File(rootDir, "jar-classes");
+        classesDir.mkdirs();
+        jarClassesDir.mkdirs();
+
+        for (String basePackage : new String[]{"meta.dir", "meta.jar"}) {
+            List<JavaFileObject> sources = new ArrayList<>();
+            sources.add(source(basePackage + ".Service", "package " + basePackage + "; public interface Service {}"));
+            sources.add(source(basePackage + ".Marker", "package " + basePackage + "; @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) @java.lang.annotation.Inherited public @interface Marker { String[] value() default {}; }"));
+            sources.add(source(basePackage + ".base.AbstractService", "package " + basePackage + ".base; @" + basePackage + ".Marker({\"a\", \"b\"}) public abstract class AbstractService implements " + basePackage + ".Service, java.io.Serializable {}"));
+            sources.add(source(basePackage + ".impl.ServiceImpl", "package " + basePackage + ".impl; public class ServiceImpl extends " + basePackage + ".base.AbstractService { public static class Inner implements java.lang.Runnable { public void run() {} } }"));
+            sources.add(source(basePackage + ".impl.Plain", "package " + basePackage + ".impl; @Deprecated public class Plain { static final long VALUE = 1L; static final String NAME = \"中文\"; }"));
+            compile("meta.dir".equals(basePackage) ? classesDir : jarClassesDir, sources);
+        }
+
+        File jarFile = new File(rootDir, "meta.jar");
+        try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(jarFile))) {
+            addToJar(outputStream, jarClassesDir, "");
+        }
+        return rootDir;
+    }
+
+    @Test
+    public void testReadMetadata() throws Exception {
+        File rootDir = createMetadataClasspath();
+        RecordingClassLoader classLoader = new RecordingClassLoader(new URL[]{new File(rootDir, "classes").toURI().toURL()});
+        ClassMetadataReader reader = new ClassMetadataReader(classLoader);
+
+        ClassMetadata metadata = reader.getMetadata("meta.dir.base.AbstractService");
+        assertEquals("meta.dir.base.AbstractService", metadata.getClassName());
+        assertEquals("java.lang.Object", metadata.getSuperClassName());
+        assertArrayEquals(new String[]{"meta.dir.Service", "java.io.Serializable"}, metadata.getInterfaceNames());
+        assertArrayEquals(new String[]{"meta.dir.Marker"}, metadata.getAnnotationNames());
+        assertTrue(metadata.isAbstract());
+        assertFalse(metadata.isConcrete());
+
+        metadata = reader.getMetadata("meta.dir.impl.ServiceImpl");
+        assertTrue(metadata.isConcrete());
+        assertTrue(metadata.isAssignableTo("meta.dir.Service"));
+        assertTrue(metadata.isAssignableTo("java.io.Serializable"));
+        assertFalse(metadata.isAssignableTo("java.lang.Runnable"));
+        assertFalse(metadata.hasAnnotation("meta.dir.Marker"));
+        assertTrue(metadata.hasAnnotation("meta.dir.Marker", true));
+
+        assertTrue(reader.getMetadata("meta.dir.Service").isInterface());
+        assertTrue(reader.getMetadata("meta.dir.Marker").isAnnotation());
+        assertTrue(reader.getMetadata("meta.dir.impl.ServiceImpl$Inner").isAssignableTo("java.lang.Runnable"));
+        assertFalse(reader.getMetadata("meta.dir.impl.Plain").isAssignableTo("meta.dir.Service"));
+        assertNull(reader.getMetadata("meta.dir.NotExists"));
+
+        // 读取元数据不会加载类
+        assertTrue(classLoader.loadedClassNames.isEmpty());
+    }
+
+    @Test
+    public void testMetadataScan() throws Exception {
+        File rootDir = createMetadataClasspath();
+        RecordingClassLoader classLoader = new RecordingClassLoader(new URL[]{
+                new File(rootDir, "classes").toURI().toURL(), new File(rootDir, "meta.jar").toURI().toURL()});
+
+        for (String basePackage : new String[]{"meta.dir", "meta.jar"}) {
+            final String serviceName = basePackage + ".Service";
+            Set<Class<?>> classSet = new ClassScanner()
+                    .setClassLoader(classLoader)
+                    .setMetadataAccepter(new ClassUtil.ClassMetadataAccept() {
+                        @Override
+                        public boolean accept(ClassMetadata metadata) {
+                            return metadata.isConcrete() && metadata.isAssignableTo(serviceName);
+                        }
+                    })
+                    .scan(basePackage);
+            assertEquals(1, classSet.size());
+            assertEquals(basePackage + ".impl.ServiceImpl", classSet.iterator().next().getName());
+            assertFalse(classLoader.loadedClassNames.contains(basePackage + ".impl.Plain"));
+            assertFalse(classLoader.loadedClassNames.contains(basePackage + ".impl.ServiceImpl$Inner"));
+        }
+    }
+
+    @Test
+    public void testScanCache() throws Exception {
+        SyntheticClasspath classpath = createClasspath(2, 10);
+        File cacheFile = new File(classpath.classesDir.getParentFile(), "scan.cache");
+
+        ClassScanner scanner = newScanner(classpath, "synthetic.jar.Service").setCache(new ClassScanCache(cacheFile));
+        // 5 个实现类 + 接口本身
+        assertEquals(6, scanner.scan("synthetic.jar").size());
+        assertTrue(cacheFile.isFile());
+
+        ClassScanCache cache = new ClassScanCache(cacheFile);
+        String jarKey = classpath.jarFile.getAbsolutePath() + "!/synthetic.jar";
+        assertEquals(11, cache.get(jarKey, classpath.jarFile.length(), classpath.jarFile.lastModified(), 0L).size());
+        assertNull(cache.get(jarKey, classpath.jarFile.length() + 1, classpath.jarFile.lastModified(), 0L));
+
+        // 使用缓存的元数据过滤
+        final String serviceName = "synthetic.jar.Service";
+        Set<Class<?>> classSet = newScanner(classpath, serviceName)
+                .setCache(cache)
+                .setMetadataAccepter(new ClassUtil.ClassMetadataAccept() {
+                    @Override
+                    public boolean accept(ClassMetadata metadata) {
+                        return metadata.isConcrete() && metadata.isAssignableTo(serviceName);
+                    }
+                })
+                .scan("synthetic.jar");
+        assertEquals(5, classSet.size());
+        assertEquals(5, newScanner(classpath, serviceName).setCache(cache).setScanSubPackage(false).scan("synthetic.jar.p0").size());
+
+        // 目录发生变化后重新扫描
+        scanner = newScanner(classpath, "synthetic.dir.Service").setCache(cache);
+        assertEquals(6, scanner.scan("synthetic.dir").size());
+        compile(classpath.classesDir, Arrays.asList(
+                source("synthetic.dir.Service", "package synthetic.dir; public interface Service {}"),
+                source("synthetic.dir.p0.Extra", "package synthetic.dir.p0; public class Extra implements synthetic.dir.Service {}")));
+        assertEquals(7, scanner.scan("synthetic.dir").size());
+    }
+
+    @Test
+    public void testScanCacheWithBrokenClass() throws Exception {
+        SyntheticClasspath classpath = createClasspath(2, 10);
+        File rootDir = classpath.classesDir.getParentFile();
+        File brokenJar = new File(rootDir, "broken.jar");
+        try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(brokenJar))) {
+            addToJar(outputStream, new File(rootDir, "jar-classes"), "");
+            outputStream.putNextEntry(new JarEntry("synthetic/jar/p0/Broken.class"));
+            outputStream.write(new byte[]{1, 2, 3});
+            outputStream.closeEntry();
+        }
+        // 类加载器从 valid 目录加载 Broken，jar 包中的同名 class 文件无法解析
+        File validDir = new File(rootDir, "valid");
+        validDir.mkdirs();
+        compile(validDir, Arrays.asList(
+                source("synthetic.jar.Service", "package synthetic.jar; public interface Service {}"),
+                source("synthetic.jar.p0.Broken", "package synthetic.jar.p0; public class Broken implements synthetic.jar.Service {}")));
+        assertTrue(new File(validDir, "synthetic/jar/Service.class").delete());
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{validDir.toURI().toURL(), brokenJar.toURI().toURL()},
+                ClassScannerTest.class.getClassLoader());
+        final Class<?> superClass = classLoader.loadClass("synthetic.jar.Service");
+        File cacheFile = new File(rootDir, "broken.cache");
+
+        // 无法解析的类不会导致扫描失败，与不使用缓存时的结果一致，但结果不写入缓存
+        ClassScanner scanner = new ClassScanner()
+                .setClassLoader(classLoader)
+                .setCache(new ClassScanCache(cacheFile))
+                .setAccepter(new ClassUtil.ClassAccept() {
+                    @Override
+                    public boolean accept(Class<?> clazz) {
+                        return superClass.isAssignableFrom(clazz);
+                    }
+                });
+        assertEquals(7, scanner.scan("synthetic.jar").size());
+        assertEquals(7, scanner.setCache(null).scan("synthetic.jar").size());
+        assertNull(new ClassScanCache(cacheFile).get(brokenJar.getAbsolutePath() + "!/synthetic.jar",
+                brokenJar.length(), brokenJar.lastModified(), 0L));
+    }
+
+    private static void awaitClass(LiveClassIndex index, String className, boolean indexed) throws InterruptedException {
+        for (int i = 0; i < 100 && index.getClassNames().contains(className) != indexed; ++i) {
+            Thread.sleep(50);
+            index.refresh();
+        }
+        assertEquals(indexed, index.getClassNames().contains(className));
+    }
+
+    @Test
+    public void testLiveClassIndex() throws Exception {
+        SyntheticClasspath classpath = createClasspath(2, 10);
+        Class<?> service = classpath.classLoader.loadClass("synthetic.dir.Service");
+        try (LiveClassIndex index = new LiveClassIndex(classpath.classLoader, true, "synthetic.dir", "synthetic.jar")) {
+            assertEquals(22, index.getClassNames().size());
+            Set<Class<?>> classSet = index.scanSubTypes(service);
+            assertEquals(6, classSet.size());
+            assertSame(classSet, index.scanSubTypes(service));
+            assertTrue(index.scanAnnotated(Deprecated.class).isEmpty());
+
+            // 新增的子包和类
+            compile(classpath.classesDir, Arrays.asList(
+                    source("synthetic.dir.Service", "package synthetic.dir; public interface Service {}"),
+                    source("synthetic.dir.p2.Extra", "package synthetic.dir.p2; @Deprecated public class Extra implements synthetic.dir.Service {}")));
+            awaitClass(index, "synthetic.dir.p2.Extra", true);
+            assertEquals(7, index.scanSubTypes(service).size());
+            assertEquals(1, index.scanAnnotated(Deprecated.class).size());
+
+            // 删除的类
+            Files.delete(new File(classpath.classesDir, "synthetic/dir/p0/C0.class").toPath());
+            awaitClass(index, "synthetic.dir.p0.C0", false);
+            assertEquals(6, index.scanSubTypes(service).size());
+
+            // jar 包发生变化
+            File jarClassesDir = new File(classpath.classesDir.getParentFile(), "jar-classes");
+            compile(jarClassesDir, Arrays.asList(
+                    source("synthetic.jar.Service", "package synthetic.jar; public interface Service {}"),
+                    source("synthetic.jar.p0.Extra", "package synthetic.jar.p0; public class Extra implements synthetic.jar.Service {}")));
+            long lastModified = classpath.jarFile.lastModified();
+            try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(classpath.jarFile))) {
+                addToJar(outputStream, jarClassesDir, "");
+            }
+            classpath.jarFile.setLastModified(lastModified + 2000);
+            long version = index.getVersion();
+            assertTrue(index.refresh());
+            assertTrue(index.getVersion() > version);
+            assertTrue(index.getClassNames().contains("synthetic.jar.p0.Extra"));
+            assertFalse(index.refresh());
+        }
+    }
+
+    /**
+     * 性能测试，生成包含 100000 个条目的 jar 包，对比正则表达式过滤和按字节过滤的耗时
+     */
+    @Ignore
+    @Test
+    public void benchmarkJarEntryFiltering() throws Exception {
+        File jarFile = Files.createTempFile("large", ".jar").toFile();
+        try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(jarFile))) {
+            byte[] content = new byte[16];
+            outputStream.putNextEntry(new JarEntry("bench/"));
+            outputStream.closeEntry();
+            for (int i = 0; i < 100000; ++i) {
+                outputStream.putNextEntry(new JarEntry("bench/module" + (i % 200) + "/p" + (i % 7) + "/C" + i + ".class"));
+                outputStream.write(content);
+                outputStream.closeEntry();
+            }
+        }
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{jarFile.toURI().toURL()}, null);
+        // 所有条目都以包名开头，但都在子包中，没有类需要加载，耗时全部在条目过滤
+        String basePackage = "bench";
+
+        for (int round = 0; round < 5; ++round) {
+            long start = System.nanoTime();
+            int count = 0;
+            int prefixCount = 0;
+            try (JarFile file = new JarFile(jarFile)) {
+                Enumeration<JarEntry> entries = file.entries();
+                while (entries.hasMoreElements()) {
+                    String entryName = entries.nextElement().getName();
+                    if (!entryName.endsWith(".class")) {
+                        continue;
+                    }
+                    String classPath = entryName.replace('/', '.');
+                    if (!classPath.startsWith(basePackage)) {
+                        continue;
+                    }
+                    ++prefixCount;
+                    String packageName = classPath.replaceAll("^(.+?)\\.([^\\.]+\\.class)$", "$1");
+                    if (packageName.equals(basePackage)) {
+                        classPath.replaceFirst("(?i)\\.class$", "");
+                        ++count;
+                    }
+                }
+            }
+            long regexCost = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int scannedCount = new ClassScanner().setClassLoader(classLoader).setScanSubPackage(false).scan(basePackage).size();
+            long scannerCost = System.nanoTime() - start;
+
+            assertEquals(count, scannedCount);
+            System.out.println("正则过滤: " + regexCost / 1000000 + "ms, 按字节过滤: " + scannerCost / 1000000 + "ms, 前缀匹配条目: " + prefixCount);
+        }
+    }
+
+    /**
+     * 性能测试，生成 5000 个类的目录以及 jar 包，对比顺序扫描和并行扫描的耗时
+     */
+    @Ignore
+    @Test
+    public void benchmarkParallelScan() throws Exception {
+        SyntheticClasspath classpath = createClasspath(50, 5000);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        for (int round = 0; round < 3; ++round) {
+            // 每轮使用新的类加载器，避免类已经被加载
+            SyntheticClasspath fresh = new SyntheticClasspath();
+            fresh.classLoader = new URLClassLoader(classpath.classLoader.getURLs(), ClassScannerTest.class.getClassLoader());
+            long start = System.nanoTime();
+            int count = newScanner(fresh, "synthetic.jar.Service").scan("synthetic").size();
+            long sequentialCost = System.nanoTime() - start;
+
+            fresh.classLoader = new URLClassLoader(classpath.classLoader.getURLs(), ClassScannerTest.class.getClassLoader());
+            start = System.nanoTime();
+            int parallelCount = newScanner(fresh, "synthetic.jar.Service").setParallelism(parallelism).scan("synthetic").size();
+            long parallelCost = System.nanoTime() - start;
+
+            assertEquals(count, parallelCount);
+            System.out.println("顺序扫描: " + sequentialCost / 1000000 + "ms, 并行扫描(" + parallelism + "): " + parallelCost / 1000000 + "ms, 类数量: " + count);
+        }
+    }
+}
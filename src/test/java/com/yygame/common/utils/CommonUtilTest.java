@@ -3,6 +3,9 @@ package com.yygame.common.utils;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -24,5 +27,39 @@ public class CommonUtilTest {
         assertTrue(CommonUtil.isStartWildcardMatch("userxxx", "user*"));
         assertTrue(CommonUtil.isStartWildcardMatch("中国人民解放军", "中国*"));
         assertTrue(CommonUtil.isStartWildcardMatch("中国人民解放军", "*人民*军"));
+        assertTrue(CommonUtil.isStartWildcardMatch("ABCD", "A?C*"));
+        assertFalse(CommonUtil.isStartWildcardMatch("ABCD", "A*C"));
+        assertTrue(CommonUtil.isStartWildcardMatch("ABCD", "**"));
+        assertFalse(CommonUtil.isStartWildcardMatch("index_do", "index.do"));
+        assertFalse(CommonUtil.isStartWildcardMatch("ABCD", ""));
+    }
+
+    @Test
+    public void testGlob() throws Exception {
+        Glob glob = Glob.compile("/static/*/app?.js");
+        assertSame(glob, Glob.compile("/static/*/app?.js"));
+        assertTrue(glob.matches("/static/v1/app1.js"));
+        assertTrue(glob.matches("/static/v1/v2/app1.js"));
+        assertFalse(glob.matches("/static/v1/app.js"));
+        assertFalse(glob.matches("/static/v1/app1_js"));
+        assertFalse(glob.matches(null));
+
+        assertTrue(Glob.compile("a*b*b").matches("abbb"));
+        assertFalse(Glob.compile("a*b*b").matches("ab"));
+        assertTrue(Glob.compile("?").matches("中"));
+        assertFalse(Glob.compile("?").matches(""));
+        assertTrue(Glob.compile("").matches(""));
+        // 包含 ? 时需要回溯到上一个 *
+        assertTrue(Glob.compile("*a?c*d").matches("xabcxacd"));
+        assertTrue(Glob.compile("a*?b").matches("axxbyb"));
+        assertFalse(Glob.compile("a*?b").matches("ab"));
+        assertTrue(Glob.compile("?*?").matches("ab"));
+        assertFalse(Glob.compile("*a?").matches("xxa"));
+
+        List<String> patterns = Arrays.asList("*.js", "/static/*", null, "*.css");
+        assertTrue(Glob.matchesAny("/static/app.js", patterns));
+        assertFalse(Glob.matchesAny("/index.do", patterns));
+        assertEquals(Arrays.asList("*.js", "/static/*"), Glob.getMatched("/static/app.js", patterns));
+        assertTrue(Glob.getMatched("/index.do", patterns).isEmpty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.yygame.common.utils;
+
+import org.junit.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author yzy
+ */
+public class ReflectUtilTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE})
+    public @interface Handler {
+        String value() default "";
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+    @Handler("get")
+    public @interface GetHandler {
+    }
+
+    @GetHandler
+    public static class Dispatcher {
+
+        @Handler
+        private String name;
+
+        @Handler("index")
+        public void index() {
+        }
+
+        @GetHandler
+        public void list() {
+        }
+
+        public void other() {
+        }
+    }
+
+    public static class SubDispatcher extends Dispatcher {
+
+        @GetHandler
+        private String title;
+
+        @Handler("detail")
+        public void detail() {
+        }
+    }
+
+    public static class BaseBean {
+        private static String constant = "constant";
+        private Long id;
+        private String name;
+    }
+
+    public static class UserBean extends BaseBean {
+        private String name;
+        private int age;
+        private String email;
+    }
+
+    @Test
+    public void testGetNoneStaticDeclaredFields() {
+        List<Field> fields = ReflectUtil.getAllNoneStaticDeclaredFields(UserBean.class);
+        assertEquals(5, fields.size());
+        assertEquals(UserBean.class, fields.get(0).getDeclaringClass());
+        assertEquals(BaseBean.class, fields.get(fields.size() - 1).getDeclaringClass());
+
+        assertEquals(3, ReflectUtil.getNoneStaticDeclaredFields(UserBean.class, String.class).size());
+        assertEquals(1, ReflectUtil.getNoneStaticDeclaredFields(UserBean.class, int.class).size());
+        assertTrue(ReflectUtil.getNoneStaticDeclaredFields(UserBean.class, Double.class).isEmpty());
+
+        // 返回的列表可以随意修改，不影响缓存
+        fields.clear();
+        assertEquals(5, ReflectUtil.getAllNoneStaticDeclaredFields(UserBean.class).size());
+    }
+
+    @Test
+    public void testFindDeclaredField() {
+        assertEquals(UserBean.class, ReflectUtil.findDeclaredField(UserBean.class, "name").getDeclaringClass());
+        assertEquals(BaseBean.class, ReflectUtil.findDeclaredField(UserBean.class, "id").getDeclaringClass());
+        assertNotNull(ReflectUtil.findDeclaredField(UserBean.class, "constant"));
+        assertNull(ReflectUtil.findDeclaredField(UserBean.class, "notExists"));
+    }
+
+    @Test
+    public void testGetAllSuperclasses() {
+        List<Class<?>> classes = ReflectUtil.getAllSuperclasses(UserBean.class, true);
+        assertEquals(3, classes.size());
+        assertEquals(UserBean.class, classes.get(0));
+        assertEquals(BaseBean.class, classes.get(1));
+        assertEquals(Object.class, classes.get(2));
+        assertEquals(2, ReflectUtil.getAllSuperclasses(UserBean.class, false).size());
+    }
+
+    @Test
+    public void testPropertyAccessor() {
+        UserBean bean = new UserBean();
+
+        PropertyAccessor<UserBean, String> nameAccessor = ReflectUtil.getPropertyAccessor(UserBean.class, "name");
+        nameAccessor.set(bean, "yzy");
+        assertEquals("yzy", nameAccessor.get(bean));
+        assertSame(nameAccessor, ReflectUtil.getPropertyAccessor(UserBean.class, "name"));
+
+        PropertyAccessor<UserBean, Integer> ageAccessor = ReflectUtil.getPropertyAccessor(UserBean.class, "age");
+        ageAccessor.setInt(bean, 18);
+        assertEquals(18, ageAccessor.getInt(bean));
+        ageAccessor.set(bean, 20L);
+        assertEquals(Integer.valueOf(20), ageAccessor.get(bean));
+
+        PropertyAccessor<UserBean, Long> idAccessor = ReflectUtil.getPropertyAccessor(UserBean.class, "id");
+        idAccessor.set(bean, 1);
+        assertEquals(Long.valueOf(1), idAccessor.get(bean));
+
+        assertNull(ReflectUtil.getPropertyAccessor(UserBean.class, "notExists"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPropertyAccessorWrongPrimitiveType() {
+        PropertyAccessor<UserBean, Integer> ageAccessor = ReflectUtil.getPropertyAccessor(UserBean.class, "age");
+        ageAccessor.getLong(new UserBean());
+    }
+
+    @Test
+    public void testNewInstanceByDefaultConstructor() {
+        BaseBean bean = ReflectUtil.newInstanceByDefaultConstructor(BaseBean.class, UserBean.class.getName());
+        assertEquals(UserBean.class, bean.getClass());
+        assertNull(ReflectUtil.newInstanceByDefaultConstructor(String.class, UserBean.class));
+        assertNull(ReflectUtil.newInstanceByDefaultConstructor(UserBean.class, "com.yygame.NotExists"));
+
+        Instantiator<UserBean> instantiator = ReflectUtil.getInstantiator(UserBean.class);
+        assertSame(instantiator, ReflectUtil.getInstantiator(UserBean.class));
+        assertNotSame(instantiator.newInstance(), instantiator.newInstance());
+    }
+
+    @Test
+    public void testAnnotationIndex() throws Exception {
+        assertEquals(3, ReflectUtil.getMethodForSpecificAnnotation(SubDispatcher.class, Handler.class).size());
+        assertEquals(1, ReflectUtil.getMethodForSpecificAnnotation(SubDispatcher.class, GetHandler.class).size());
+        assertTrue(ReflectUtil.getMethodForSpecificAnnotation(SubDispatcher.class, Test.class).isEmpty());
+        assertEquals(2, ReflectUtil.getFieldForSpecificAnnotation(SubDispatcher.class, Handler.class).size());
+
+        Method list = Dispatcher.class.getMethod("list");
+        assertEquals("get", ReflectUtil.getMethodAnnotation(list, Handler.class).value());
+        assertNull(ReflectUtil.getMethodAnnotation(Dispatcher.class.getMethod("other"), Handler.class));
+
+        assertNotNull(ReflectUtil.getClassAnnotation(Dispatcher.class, GetHandler.class));
+        assertEquals("get", ReflectUtil.getClassAnnotation(Dispatcher.class, Handler.class).value());
+        assertNull(ReflectUtil.getClassAnnotation(SubDispatcher.class, Handler.class));
+
+        Field title = SubDispatcher.class.getDeclaredField("title");
+        assertEquals("get", ReflectUtil.getFieldAnnotation(title, Handler.class).value());
+    }
+}
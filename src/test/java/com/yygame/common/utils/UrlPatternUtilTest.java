@@ -1,9 +1,12 @@
 package com.yygame.common.utils;
 
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -25,4 +28,185 @@ public class UrlPatternUtilTest {
         ))));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPatternSet() throws Exception {
+        PatternSet patternSet = UrlPatternUtil.compile(Arrays.asList(
+                "/login.do", "/admin/*", "*.js", "/api/*/list*.json", "/static/*/img/*", "^/v[0-9]+/user$", "/bad[regex"));
+
+        String[] matched = {"/login.do", "/admin/", "/admin", "/admin//", "/admin/user/edit", "/a/b/c.js", "/api/user/list.json",
+                "/api/user/list2.json", "/static/x/img/a.png", "/v2/user", "/bad[regex"};
+        String[] unmatched = {"", "/login.do2", "/adminx", "/js", "/api/user/list.jsonp", "/static/x/image/a.png", "/vx/user",
+                "/admin/a*b", "/api/a*b/list.json"};
+        Set<String> patterns = new HashSet<>(patternSet.getPatterns());
+        for (String uri : matched) {
+            assertTrue(uri, patternSet.matches(uri));
+            assertTrue(uri, UrlPatternUtil.isMatch(uri, patterns));
+        }
+        for (String uri : unmatched) {
+            assertFalse(uri, UrlPatternUtil.isMatch(uri, patternSet));
+            assertFalse(uri, UrlPatternUtil.isMatch(uri, patterns));
+        }
+
+        // 通配符匹配项也按正则表达式匹配，与 isMatch 一致
+        assertTrue(PatternSet.compile("/api*").matches("/ap"));
+        assertTrue(UrlPatternUtil.isMatch("/ap", new HashSet<>(Arrays.asList("/api*"))));
+        // '.' 只表示 '.' 本身，与 isMatch 不同
+        assertFalse(PatternSet.compile("/a.do", "/b.*").matches("/aXdo"));
+        assertFalse(PatternSet.compile("/a.do", "/b.*").matches("/bX"));
+        assertTrue(UrlPatternUtil.isMatch("/aXdo", new HashSet<>(Arrays.asList("/a.do"))));
+
+        assertTrue(PatternSet.compile("*").matches("/any"));
+        assertFalse(PatternSet.compile().matches("/any"));
+        assertTrue(PatternSet.compile("/a*b*").matches("/a1b2"));
+        assertTrue(PatternSet.compile("*b").matches("*b"));
+    }
+
+    @Test
+    public void testUrlRouter() throws Exception {
+        UrlRouter<String> router = new UrlRouter<String>()
+                .add("/user/login", "login")
+                .add("/user/*", "user")
+                .add("/user/*/detail", "user-detail")
+                .add("/order/*/item/*", "order-item")
+                .add("*.do", "action")
+                .add("/api/v*/*.json", "api")
+                .add("^/v([0-9]+)/(\\w+)$", "versioned")
+                .add("*", "default");
+
+        assertEquals("login", router.route("/user/login").getTarget());
+        assertTrue(router.match("/user/login").getCaptures().isEmpty());
+
+        UrlRouter.RouteMatch<String> match = router.match("/user/123/detail");
+        assertEquals("user-detail", match.getTarget());
+        assertEquals(Arrays.asList("123"), match.getCaptures());
+
+        match = router.match("/user/123/edit");
+        assertEquals("user", match.getTarget());
+        assertEquals(Arrays.asList("123/edit"), match.getCaptures());
+        assertEquals("/user/*", match.getPattern());
+
+        assertEquals(Arrays.asList("1", "a/b"), router.match("/order/1/item/a/b").getCaptures());
+        assertEquals(Arrays.asList("/admin/list"), router.match("/admin/list.do").getCaptures());
+        assertEquals(Arrays.asList("2", "user/list"), router.match("/api/v2/user/list.json").getCaptures());
+        // 更深的节点优先
+        assertEquals("user", router.route("/user/list.do").getTarget());
+
+        match = router.match("/v2/users");
+        assertEquals("versioned", match.getTarget());
+        assertEquals(Arrays.asList("2", "users"), match.getCaptures());
+
+        assertEquals("default", router.route("/other").getTarget());
+        assertNull(new UrlRouter<String>().add("/a", "a").route("/b"));
+
+        try {
+            router.add("/user/*", "duplicate");
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        // 与 isMatch 一致：通配符和正则表达式混合时先按通配符转换，无法编译的正则表达式只能完全匹配，通配符不能匹配 *
+        UrlRouter<String> mixed = new UrlRouter<String>()
+                .add("/api/(v1|v2)/*", "api")
+                .add("/bad[regex", "bad")
+                .add("/static/*", "static");
+        UrlRouter.RouteMatch<String> apiMatch = mixed.match("/api/v1/users");
+        assertEquals("api", apiMatch.getTarget());
+        assertEquals(Arrays.asList("v1"), apiMatch.getCaptures());
+        assertTrue(UrlPatternUtil.isMatch("/api/v1/users", new HashSet<>(Arrays.asList("/api/(v1|v2)/*"))));
+        assertEquals("bad", mixed.route("/bad[regex").getTarget());
+        assertNull(mixed.route("/badr"));
+        assertEquals("static", mixed.route("/static/a.js").getTarget());
+        assertNull(mixed.route("/static/a*b"));
+        assertFalse(UrlPatternUtil.isMatch("/static/a*b", new HashSet<>(Arrays.asList("/static/*"))));
+
+        // 与 PatternSet 一致，通配符路由也按原样作为正则表达式匹配，'.' 只表示 '.' 本身
+        UrlRouter<String> admin = new UrlRouter<String>()
+                .add("/admin/*", "admin")
+                .add("/a.do*", "action");
+        assertEquals("admin", admin.route("/admin").getTarget());
+        assertTrue(admin.match("/admin").getCaptures().isEmpty());
+        assertTrue(UrlPatternUtil.isMatch("/admin", new HashSet<>(Arrays.asList("/admin/*"))));
+        assertTrue(PatternSet.compile("/admin/*").matches("/admin"));
+        assertEquals(Arrays.asList("list"), admin.match("/admin/list").getCaptures());
+        assertEquals("action", admin.route("/a.d").getTarget());
+        assertNull(admin.route("/aXd"));
+        assertNull(admin.route("/adminx"));
+    }
+
+    @Test
+    public void testUrlMatchCache() throws Exception {
+        PatternSet patternSet = UrlPatternUtil.compile(Arrays.asList("/admin/*", "*.js"));
+        PatternSet other = UrlPatternUtil.compile(Arrays.asList("/user/*"));
+        UrlMatchCache cache = new UrlMatchCache(32);
+
+        assertTrue(UrlPatternUtil.isMatch("/admin/index.do", patternSet, cache));
+        assertTrue(UrlPatternUtil.isMatch("/admin/index.do", patternSet, cache));
+        assertFalse(UrlPatternUtil.isMatch("/user/index.do", patternSet, cache));
+        assertTrue(UrlPatternUtil.isMatch("/user/index.do", other, cache));
+        assertFalse(UrlPatternUtil.isMatch("/user/index.do", patternSet, cache));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(0.4, cache.getHitRatio(), 0.0001);
+        assertEquals(3, cache.size());
+
+        assertTrue(cache.isStartWildcardMatch("ABCD", "A*D"));
+        assertFalse(cache.isStartWildcardMatch("ABCD", "A*C"));
+        assertTrue(cache.isStartWildcardMatch("ABCD", "A*D"));
+        assertEquals(3, cache.getHitCount());
+
+        for (int i = 0; i < 1000; ++i) {
+            cache.isMatch("/admin/" + i, patternSet);
+        }
+        assertTrue(cache.size() <= cache.getMaxSize());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitRatio(), 0);
+    }
+
+    /**
+     * 性能测试，200 个匹配项，对比 isMatch 和预编译的耗时
+     */
+    @Ignore
+    @Test
+    public void benchmarkPatternSet() throws Exception {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (int i = 0; i < 50; ++i) {
+            patterns.add("/module" + i + "/index.do");
+            patterns.add("/module" + i + "/admin/*");
+            patterns.add("*.ext" + i);
+            patterns.add("/module" + i + "/*/detail*.do");
+        }
+        String[] uris = new String[1000];
+        for (int i = 0; i < uris.length; ++i) {
+            uris[i] = "/module" + (i % 60) + (i % 3 == 0 ? "/admin/list.do" : "/user/" + i + "/detail.do");
+        }
+        PatternSet patternSet = UrlPatternUtil.compile(patterns);
+
+        for (int round = 0; round < 5; ++round) {
+            long start = System.nanoTime();
+            int count = 0;
+            for (String uri : uris) {
+                if (UrlPatternUtil.isMatch(uri, patterns)) {
+                    ++count;
+                }
+            }
+            long regexCost = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int compiledCount = 0;
+            for (int n = 0; n < 100; ++n) {
+                for (String uri : uris) {
+                    if (patternSet.matches(uri)) {
+                        ++compiledCount;
+                    }
+                }
+            }
+            long compiledCost = (System.nanoTime() - start) / 100;
+
+            assertEquals(count, compiledCount / 100);
+            System.out.println("isMatch: " + regexCost / uris.length + "ns/次, PatternSet: " + compiledCost / uris.length + "ns/次");
+        }
+    }
+}